@@ -0,0 +1,36 @@
+package com.visa.paymentservice.benchmark;
+
+import com.visa.paymentservice.model.OperationCategory;
+import com.visa.paymentservice.model.OperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AmountSignBenchmark {
+    
+    private final OperationType purchase = new OperationType("Purchase with installments", OperationCategory.DEBIT);
+    private final BigDecimal amount = new BigDecimal("123.45");
+    private final long amountCents = 12345L;
+    
+    @Benchmark
+    public long category() {
+        return purchase.getCategory().apply(amountCents);
+    }
+    
+    // The BigDecimal description matching TransactionService used before operation types carried a category
+    @Benchmark
+    public BigDecimal descriptionMatch() {
+        String operationDescription = purchase.getDescription().toLowerCase();
+        if (operationDescription.contains("purchase") || operationDescription.contains("withdrawal")) {
+            return amount.negate();
+        }
+        return amount;
+    }
+}
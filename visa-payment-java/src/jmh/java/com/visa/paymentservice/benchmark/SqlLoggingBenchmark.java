@@ -0,0 +1,77 @@
+package com.visa.paymentservice.benchmark;
+
+import com.visa.paymentservice.PaymentServiceApplication;
+import com.visa.paymentservice.dto.AccountRequest;
+import com.visa.paymentservice.dto.TransactionRequest;
+import com.visa.paymentservice.dto.TransactionResponse;
+import com.visa.paymentservice.service.AccountService;
+import com.visa.paymentservice.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Startup and per-transaction cost with the default profile's SQL logging on and off (the prod profile turns it off)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class SqlLoggingBenchmark {
+    
+    @State(Scope.Benchmark)
+    public static class Logging {
+        
+        @Param({"true", "false"})
+        public boolean showSql;
+        
+        ConfigurableApplicationContext start() {
+            return SpringApplication.run(PaymentServiceApplication.class,
+                    "--spring.main.web-application-type=none",
+                    "--spring.jpa.show-sql=" + showSql,
+                    "--spring.jpa.properties.hibernate.format_sql=" + showSql,
+                    // Otherwise the repeated purchase is declined once the credit limit is used up
+                    "--payment.limits.enabled=false",
+                    "--logging.level.root=WARN");
+        }
+    }
+    
+    @State(Scope.Benchmark)
+    public static class Running {
+        
+        ConfigurableApplicationContext context;
+        TransactionService transactionService;
+        TransactionRequest purchase;
+        
+        @Setup(Level.Trial)
+        public void setUp(Logging logging) {
+            context = logging.start();
+            transactionService = context.getBean(TransactionService.class);
+            Long accountId = context.getBean(AccountService.class)
+                    .createAccount(new AccountRequest("12345678900"))
+                    .getAccountId();
+            purchase = new TransactionRequest(accountId, 1L, new BigDecimal("50.00"));
+        }
+        
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+    
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void startup(Logging logging) {
+        logging.start().close();
+    }
+    
+    @Benchmark
+    @Warmup(iterations = 3, time = 5)
+    @Measurement(iterations = 5, time = 5)
+    public TransactionResponse createTransaction(Running running) {
+        return running.transactionService.createTransaction(running.purchase);
+    }
+}
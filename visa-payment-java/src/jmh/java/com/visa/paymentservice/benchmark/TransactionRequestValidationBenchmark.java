@@ -0,0 +1,49 @@
+package com.visa.paymentservice.benchmark;
+
+import com.visa.paymentservice.dto.TransactionRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionRequestValidationBenchmark {
+    
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private TransactionRequest valid;
+    private TransactionRequest invalid;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        valid = new TransactionRequest(1L, 1L, new BigDecimal("50.00"));
+        invalid = new TransactionRequest(null, 1L, null);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+    
+    @Benchmark
+    public Set<ConstraintViolation<TransactionRequest>> validRequest() {
+        return validator.validate(valid);
+    }
+    
+    @Benchmark
+    public Set<ConstraintViolation<TransactionRequest>> invalidRequest() {
+        return validator.validate(invalid);
+    }
+}
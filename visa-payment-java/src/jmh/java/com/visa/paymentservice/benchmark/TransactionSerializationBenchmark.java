@@ -0,0 +1,65 @@
+package com.visa.paymentservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.visa.paymentservice.dto.TransactionResponse;
+import com.visa.paymentservice.model.Account;
+import com.visa.paymentservice.model.OperationCategory;
+import com.visa.paymentservice.model.OperationType;
+import com.visa.paymentservice.model.Transaction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionSerializationBenchmark {
+    
+    private ObjectMapper objectMapper;
+    private ObjectMapper cborMapper;
+    private ObjectMapper smileMapper;
+    private Transaction transaction;
+    private TransactionResponse response;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        cborMapper = new ObjectMapper(new CBORFactory()).findAndRegisterModules();
+        smileMapper = new ObjectMapper(new SmileFactory()).findAndRegisterModules();
+        
+        Account account = new Account("12345678900");
+        account.setAccountId(1L);
+        OperationType operationType = new OperationType("Normal Purchase", OperationCategory.DEBIT);
+        operationType.setOperationTypeId(1L);
+        transaction = new Transaction(account, operationType, -5000L);
+        transaction.setTransactionId(1L);
+        response = new TransactionResponse(transaction.getTransactionId(), account.getAccountId(),
+                operationType.getOperationTypeId(), transaction.getAmountCents(), transaction.getEventDate());
+    }
+    
+    @Benchmark
+    public byte[] serializeTransaction() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transaction);
+    }
+    
+    @Benchmark
+    public byte[] serializeResponseJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public byte[] serializeResponseCbor() throws JsonProcessingException {
+        return cborMapper.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public byte[] serializeResponseSmile() throws JsonProcessingException {
+        return smileMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,57 @@
+package com.visa.paymentservice.benchmark;
+
+import com.visa.paymentservice.PaymentServiceApplication;
+import com.visa.paymentservice.dto.AccountRequest;
+import com.visa.paymentservice.dto.TransactionRequest;
+import com.visa.paymentservice.dto.TransactionResponse;
+import com.visa.paymentservice.service.AccountService;
+import com.visa.paymentservice.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// End-to-end service call against the embedded H2 database, without the web layer
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransactionServiceBenchmark {
+    
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private TransactionRequest purchase;
+    private TransactionRequest voucher;
+    private boolean purchaseNext;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(PaymentServiceApplication.class,
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+        transactionService = context.getBean(TransactionService.class);
+        
+        Long accountId = context.getBean(AccountService.class)
+                .createAccount(new AccountRequest("12345678900"))
+                .getAccountId();
+        purchase = new TransactionRequest(accountId, 1L, new BigDecimal("50.00"));
+        voucher = new TransactionRequest(accountId, 4L, new BigDecimal("50.00"));
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    // Purchases alternate with vouchers, so the balance stays within the credit limit and every purchase is authorized
+    @Benchmark
+    public TransactionResponse createTransaction() {
+        purchaseNext = !purchaseNext;
+        return transactionService.createTransaction(purchaseNext ? purchase : voucher);
+    }
+}
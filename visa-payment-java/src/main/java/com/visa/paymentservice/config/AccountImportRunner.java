@@ -0,0 +1,37 @@
+package com.visa.paymentservice.config;
+
+import com.visa.paymentservice.dto.AccountImportResult;
+import com.visa.paymentservice.service.AccountImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+// Imports a partner portfolio at startup, e.g. --payment.account-import.file=/data/portfolio.csv
+@Component
+@Order(1)
+@ConditionalOnProperty(name = "payment.account-import.file")
+public class AccountImportRunner implements CommandLineRunner {
+    
+    private static final Logger log = LoggerFactory.getLogger(AccountImportRunner.class);
+    
+    @Autowired
+    private AccountImportService accountImportService;
+    
+    @Value("${payment.account-import.file}")
+    private Path file;
+    
+    @Override
+    public void run(String... args) throws Exception {
+        AccountImportResult result = accountImportService.importCsv(file);
+        log.info("Imported {} accounts from {} ({} duplicates, {} rejected{})", result.getImported(), file,
+                result.getDuplicates(), result.getRejected(),
+                result.getRejectsId() == null ? "" : ", see " + accountImportService.findRejects(result.getRejectsId()).orElseThrow());
+    }
+}
@@ -1,25 +1,35 @@
 package com.visa.paymentservice.config;
 
-import com.visa.paymentservice.model.OperationType;
+import com.visa.paymentservice.model.OperationCategory;
 import com.visa.paymentservice.repository.OperationTypeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class DatabaseInitializer implements CommandLineRunner {
     
+    private static final String INSERT_OPERATION_TYPE = "insert into operation_types (description, category, installments_allowed) values (?, ?, ?)";
+    
     @Autowired
     private OperationTypeRepository operationTypeRepository;
     
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
     @Override
     public void run(String... args) throws Exception {
-        // Initialize operation types if they don't exist
+        // Initialize operation types if they don't exist. Identity ids keep Hibernate from batching inserts,
+        // so the seed goes through JDBC as one batch; ids are assigned in list order
         if (operationTypeRepository.count() == 0) {
-            operationTypeRepository.save(new OperationType("Normal Purchase"));
-            operationTypeRepository.save(new OperationType("Purchase with installments"));
-            operationTypeRepository.save(new OperationType("Withdrawal"));
-            operationTypeRepository.save(new OperationType("Credit Voucher"));
+            jdbcTemplate.batchUpdate(INSERT_OPERATION_TYPE, List.of(
+                    new Object[]{"Normal Purchase", OperationCategory.DEBIT.name(), false},
+                    new Object[]{"Purchase with installments", OperationCategory.DEBIT.name(), true},
+                    new Object[]{"Withdrawal", OperationCategory.DEBIT.name(), false},
+                    new Object[]{"Credit Voucher", OperationCategory.CREDIT.name(), false}));
         }
     }
 }
@@ -0,0 +1,29 @@
+package com.visa.paymentservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Stops the application as soon as it is ready to serve, for the CDS training run and the startup measurement
+// of the startup build profile. Checked at runtime rather than by a condition, so it survives AOT processing
+@Component
+public class ExitAfterStartup {
+    
+    private static final Logger log = LoggerFactory.getLogger(ExitAfterStartup.class);
+    
+    @Value("${payment.startup.exit-when-ready:false}")
+    private boolean exitWhenReady;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        if (!exitWhenReady) {
+            return;
+        }
+        log.info("Ready in {} ms, exiting", event.getTimeTaken().toMillis());
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.visa.paymentservice.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Defers the beans of the packages in payment.startup.lazy-packages (e.g. springdoc) to their first use, while
+// everything on the request path stays eager, unlike spring.main.lazy-initialization which defers all of it
+@Component
+public class SelectiveLazyInitialization implements BeanFactoryPostProcessor, EnvironmentAware {
+    
+    private List<String> lazyPackages = List.of();
+    
+    @Override
+    public void setEnvironment(Environment environment) {
+        lazyPackages = Binder.get(environment)
+                .bind("payment.startup.lazy-packages", Bindable.listOf(String.class))
+                .orElse(List.of());
+    }
+    
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        if (lazyPackages.isEmpty()) {
+            return;
+        }
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (isLazyCandidate(beanFactory, definition)) {
+                definition.setLazyInit(true);
+            }
+        }
+    }
+    
+    // @Bean methods have no bean class of their own, so they are matched by their configuration class
+    private boolean isLazyCandidate(ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+        String className = definition.getBeanClassName();
+        if (className == null && definition.getFactoryBeanName() != null
+                && beanFactory.containsBeanDefinition(definition.getFactoryBeanName())) {
+            className = beanFactory.getBeanDefinition(definition.getFactoryBeanName()).getBeanClassName();
+        }
+        if (className == null) {
+            return false;
+        }
+        for (String lazyPackage : lazyPackages) {
+            if (className.startsWith(lazyPackage + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,18 @@
+package com.visa.paymentservice.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Read-only transactions go to the replica, everything else to the primary
+public class TransactionRoutingDataSource extends AbstractRoutingDataSource {
+    
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.REPLICA : Route.PRIMARY;
+    }
+}
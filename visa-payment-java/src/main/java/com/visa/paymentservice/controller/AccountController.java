@@ -1,28 +1,73 @@
 package com.visa.paymentservice.controller;
 
+import com.visa.paymentservice.dto.AccountImportResult;
+import com.visa.paymentservice.dto.AccountLimitRequest;
+import com.visa.paymentservice.dto.AccountLimitResponse;
 import com.visa.paymentservice.dto.AccountRequest;
 import com.visa.paymentservice.dto.AccountResponse;
+import com.visa.paymentservice.dto.AccountSummaryResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.visa.paymentservice.dto.BalanceResponse;
+import com.visa.paymentservice.dto.TransactionPageResponse;
+import com.visa.paymentservice.dto.TransactionResponse;
+import com.visa.paymentservice.service.AccountImportService;
+import com.visa.paymentservice.service.AccountLimitService;
 import com.visa.paymentservice.service.AccountService;
+import com.visa.paymentservice.service.AccountSummaryService;
+import com.visa.paymentservice.service.BalanceService;
+import com.visa.paymentservice.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/accounts")
 @Tag(name = "Account Management", description = "APIs for managing customer accounts")
 public class AccountController {
     
+    private static final int EXPORT_PAGE_SIZE = 1000;
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    
     @Autowired
     private AccountService accountService;
     
+    @Autowired
+    private AccountImportService accountImportService;
+    
+    @Autowired
+    private BalanceService balanceService;
+    
+    @Autowired
+    private AccountLimitService accountLimitService;
+    
+    @Autowired
+    private AccountSummaryService accountSummaryService;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @PostMapping
     @Operation(summary = "Create a new account", description = "Creates a new account with the provided document number")
     @ApiResponses(value = {
@@ -39,6 +84,31 @@ public class AccountController {
         }
     }
     
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @Operation(summary = "Import accounts from CSV", description = "Creates an account for every document number in the first column of the uploaded CSV. Invalid rows are written to a rejects file")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished, see counts"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<AccountImportResult> importAccounts(HttpServletRequest request) throws IOException {
+        // The body is parsed as it arrives instead of being buffered
+        BufferedReader reader = request.getReader();
+        return ResponseEntity.ok(accountImportService.importCsv(reader));
+    }
+    
+    @GetMapping(value = "/import/rejects/{rejectsId}", produces = "text/csv")
+    @Operation(summary = "Download import rejects", description = "Returns the rejects CSV of an import by the rejectsId it reported")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rejects file found"),
+            @ApiResponse(responseCode = "404", description = "Unknown rejects id, or the file is on another instance"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<Resource> getImportRejects(@PathVariable String rejectsId) {
+        return accountImportService.findRejects(rejectsId)
+                .map(path -> ResponseEntity.ok().contentType(TEXT_CSV).<Resource>body(new FileSystemResource(path)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     @GetMapping("/{accountId}")
     @Operation(summary = "Get account by ID", description = "Retrieves account information by account ID")
     @ApiResponses(value = {
@@ -51,4 +121,161 @@ public class AccountController {
         return account.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+    
+    @GetMapping(params = "documentNumber")
+    @Operation(summary = "Get account by document number", description = "Retrieves account information by the 11-digit document number")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Account found"),
+            @ApiResponse(responseCode = "400", description = "Invalid document number"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<AccountResponse> getAccountByDocumentNumber(@RequestParam String documentNumber) {
+        try {
+            return accountService.findByDocumentNumber(documentNumber)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/{accountId}/balance")
+    @Operation(summary = "Get account balance", description = "Retrieves the current balance of the account from the balance projection")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Balance found"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<BalanceResponse> getBalance(@PathVariable Long accountId) {
+        return balanceService.getBalance(accountId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @PostMapping("/{accountId}/balance/rebuild")
+    @Operation(summary = "Rebuild account balance", description = "Recomputes the balance projection of the account from its transactions")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Balance rebuilt"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Timed out waiting for the account lock, retry later")
+    })
+    public ResponseEntity<BalanceResponse> rebuildBalance(@PathVariable Long accountId) {
+        try {
+            return balanceService.rebuild(accountId)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
+    @GetMapping("/{accountId}/limit")
+    @Operation(summary = "Get account credit limit", description = "Retrieves the credit limit of the account and how much of it is still available")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Limit found"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<AccountLimitResponse> getLimit(@PathVariable Long accountId) {
+        return accountLimitService.getLimit(accountId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @PutMapping("/{accountId}/limit")
+    @Operation(summary = "Set account credit limit", description = "Sets how far below zero purchases and withdrawals may take the balance of the account")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Limit updated"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Timed out waiting for the account lock, retry later")
+    })
+    public ResponseEntity<AccountLimitResponse> setLimit(@PathVariable Long accountId,
+                                                         @Valid @RequestBody AccountLimitRequest request) {
+        try {
+            return accountLimitService.setLimit(accountId, request.getCreditLimit())
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
+    @GetMapping("/{accountId}/transactions")
+    @Operation(summary = "List account transactions", description = "Retrieves a page of the account's transactions in chronological order, optionally limited to event dates in [from, to). Pass nextCursor from the previous page to continue")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page found"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, date range or page size"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<TransactionPageResponse> getTransactions(@PathVariable Long accountId,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return transactionService.getTransactionPage(accountId, from, to, cursor, limit)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/{accountId}/summary")
+    @Operation(summary = "Get account summary", description = "Retrieves the count and sum of the account's transactions per day and operation type for days in [from, to). Defaults to the last 30 days including today")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Summary found"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<AccountSummaryResponse> getSummary(@PathVariable Long accountId,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return accountSummaryService.getSummary(accountId, from, to)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping(value = "/{accountId}/transactions/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export account transactions", description = "Streams all of the account's transactions as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export started"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@PathVariable Long accountId) {
+        Optional<TransactionPageResponse> firstPage = transactionService.getTransactionPage(accountId, null, EXPORT_PAGE_SIZE);
+        if (firstPage.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        // Each page is read in its own short transaction, so memory use does not grow with the account's history
+        StreamingResponseBody body = output -> {
+            TransactionPageResponse page = firstPage.get();
+            while (true) {
+                for (TransactionResponse transaction : page.getTransactions()) {
+                    output.write(objectMapper.writeValueAsBytes(transaction));
+                    output.write('\n');
+                }
+                output.flush();
+                if (page.getNextCursor() == null) {
+                    break;
+                }
+                page = transactionService.getTransactionPage(accountId, page.getNextCursor(), EXPORT_PAGE_SIZE).orElseThrow();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
 }
@@ -1,7 +1,15 @@
 package com.visa.paymentservice.controller;
 
+import com.visa.paymentservice.dto.TransactionBatchRequest;
+import com.visa.paymentservice.dto.TransactionBatchResult;
+import com.visa.paymentservice.dto.TransactionDeclineResponse;
 import com.visa.paymentservice.dto.TransactionRequest;
-import com.visa.paymentservice.model.Transaction;
+import com.visa.paymentservice.dto.TransactionResponse;
+import com.visa.paymentservice.model.Money;
+import com.visa.paymentservice.service.IdempotencyKeyReusedException;
+import com.visa.paymentservice.service.IdempotencyService;
+import com.visa.paymentservice.service.TransactionDeclinedException;
+import com.visa.paymentservice.service.TransactionRules;
 import com.visa.paymentservice.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,6 +21,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/transactions")
 @Tag(name = "Transaction Management", description = "APIs for managing transactions")
@@ -21,19 +32,64 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     @PostMapping
-    @Operation(summary = "Create a new transaction", description = "Creates a new transaction for the specified account")
+    @Operation(summary = "Create a new transaction", description = "Creates a new transaction for the specified account. Requests repeating an Idempotency-Key get the original response back")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Transaction created successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid input or account/operation type not found"),
-            @ApiResponse(responseCode = "500", description = "Internal server error")
+            @ApiResponse(responseCode = "422", description = "Declined, the body carries the decline reason and the available limit; or the Idempotency-Key was already used for a different request"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Write-behind ledger queue is full or the account lock timed out, retry later")
     })
-    public ResponseEntity<Transaction> createTransaction(@Valid @RequestBody TransactionRequest request) {
+    public ResponseEntity<TransactionResponse> createTransaction(@Valid @RequestBody TransactionRequest request,
+                                                                 @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            Transaction transaction = transactionService.createTransaction(request);
+            TransactionResponse transaction;
+            if (idempotencyKey == null) {
+                transaction = transactionService.createTransaction(request);
+            } else {
+                if (idempotencyKey.isBlank() || idempotencyKey.length() > 128) {
+                    return ResponseEntity.badRequest().build();
+                }
+                transaction = idempotencyService.execute(idempotencyKey, TransactionRules.requestHash(request),
+                        () -> transactionService.createTransaction(request, idempotencyKey));
+            }
             return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
     }
+    
+    @PostMapping("/batch")
+    @Operation(summary = "Create transactions in bulk", description = "Creates a batch of transactions and reports the outcome of each item")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Batch processed, see per-item results; declined items carry the decline reason"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Timed out waiting for an account lock, retry later")
+    })
+    public ResponseEntity<List<TransactionBatchResult>> createTransactions(@Valid @RequestBody TransactionBatchRequest request) {
+        try {
+            List<TransactionBatchResult> results = transactionService.createTransactions(request.getTransactions());
+            return ResponseEntity.status(HttpStatus.CREATED).body(results);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
+    @ExceptionHandler(TransactionDeclinedException.class)
+    public ResponseEntity<TransactionDeclineResponse> declined(TransactionDeclinedException e) {
+        return ResponseEntity.unprocessableEntity().body(new TransactionDeclineResponse(e.getAccountId(), e.getReason(),
+                Money.toDecimal(e.getAvailableCents())));
+    }
+    
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Void> idempotencyKeyReused() {
+        return ResponseEntity.unprocessableEntity().build();
+    }
 }
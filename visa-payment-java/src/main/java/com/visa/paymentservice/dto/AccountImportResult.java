@@ -0,0 +1,51 @@
+package com.visa.paymentservice.dto;
+
+public class AccountImportResult {
+    
+    private long imported;
+    private long duplicates;
+    private long rejected;
+    // Download with GET /accounts/import/rejects/{rejectsId}; null when no row was rejected
+    private String rejectsId;
+    
+    public AccountImportResult() {}
+    
+    public AccountImportResult(long imported, long duplicates, long rejected, String rejectsId) {
+        this.imported = imported;
+        this.duplicates = duplicates;
+        this.rejected = rejected;
+        this.rejectsId = rejectsId;
+    }
+    
+    public long getImported() {
+        return imported;
+    }
+    
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+    
+    public long getDuplicates() {
+        return duplicates;
+    }
+    
+    public void setDuplicates(long duplicates) {
+        this.duplicates = duplicates;
+    }
+    
+    public long getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+    
+    public String getRejectsId() {
+        return rejectsId;
+    }
+    
+    public void setRejectsId(String rejectsId) {
+        this.rejectsId = rejectsId;
+    }
+}
@@ -0,0 +1,29 @@
+package com.visa.paymentservice.dto;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.math.BigDecimal;
+
+public class AccountLimitRequest {
+    
+    @NotNull(message = "Credit limit is required")
+    @PositiveOrZero(message = "Credit limit must not be negative")
+    @Digits(integer = 8, fraction = 2, message = "Credit limit must have at most 8 integer digits and 2 decimal places")
+    private BigDecimal creditLimit;
+    
+    public AccountLimitRequest() {}
+    
+    public AccountLimitRequest(BigDecimal creditLimit) {
+        this.creditLimit = creditLimit;
+    }
+    
+    public BigDecimal getCreditLimit() {
+        return creditLimit;
+    }
+    
+    public void setCreditLimit(BigDecimal creditLimit) {
+        this.creditLimit = creditLimit;
+    }
+}
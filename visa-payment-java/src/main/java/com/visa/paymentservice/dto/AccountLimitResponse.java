@@ -0,0 +1,42 @@
+package com.visa.paymentservice.dto;
+
+import java.math.BigDecimal;
+
+public class AccountLimitResponse {
+    
+    private Long accountId;
+    private BigDecimal creditLimit;
+    private BigDecimal availableLimit;
+    
+    public AccountLimitResponse() {}
+    
+    public AccountLimitResponse(Long accountId, BigDecimal creditLimit, BigDecimal availableLimit) {
+        this.accountId = accountId;
+        this.creditLimit = creditLimit;
+        this.availableLimit = availableLimit;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public BigDecimal getCreditLimit() {
+        return creditLimit;
+    }
+    
+    public void setCreditLimit(BigDecimal creditLimit) {
+        this.creditLimit = creditLimit;
+    }
+    
+    public BigDecimal getAvailableLimit() {
+        return availableLimit;
+    }
+    
+    public void setAvailableLimit(BigDecimal availableLimit) {
+        this.availableLimit = availableLimit;
+    }
+}
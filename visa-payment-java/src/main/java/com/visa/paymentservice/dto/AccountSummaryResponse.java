@@ -0,0 +1,53 @@
+package com.visa.paymentservice.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class AccountSummaryResponse {
+    
+    private Long accountId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<DailySummaryResponse> days;
+    
+    public AccountSummaryResponse() {}
+    
+    public AccountSummaryResponse(Long accountId, LocalDate from, LocalDate to, List<DailySummaryResponse> days) {
+        this.accountId = accountId;
+        this.from = from;
+        this.to = to;
+        this.days = days;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public LocalDate getFrom() {
+        return from;
+    }
+    
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+    
+    public LocalDate getTo() {
+        return to;
+    }
+    
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+    
+    public List<DailySummaryResponse> getDays() {
+        return days;
+    }
+    
+    public void setDays(List<DailySummaryResponse> days) {
+        this.days = days;
+    }
+}
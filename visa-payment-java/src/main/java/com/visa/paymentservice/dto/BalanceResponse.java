@@ -0,0 +1,32 @@
+package com.visa.paymentservice.dto;
+
+import java.math.BigDecimal;
+
+public class BalanceResponse {
+    
+    private Long accountId;
+    private BigDecimal balance;
+    
+    public BalanceResponse() {}
+    
+    public BalanceResponse(Long accountId, BigDecimal balance) {
+        this.accountId = accountId;
+        this.balance = balance;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public BigDecimal getBalance() {
+        return balance;
+    }
+    
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
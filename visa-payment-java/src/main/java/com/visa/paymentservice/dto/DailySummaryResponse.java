@@ -0,0 +1,55 @@
+package com.visa.paymentservice.dto;
+
+import com.visa.paymentservice.model.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class DailySummaryResponse {
+    
+    private LocalDate date;
+    private Long operationTypeId;
+    private long transactionCount;
+    private BigDecimal amount;
+    
+    public DailySummaryResponse() {}
+    
+    public DailySummaryResponse(LocalDate date, Long operationTypeId, long transactionCount, long amountCents) {
+        this.date = date;
+        this.operationTypeId = operationTypeId;
+        this.transactionCount = transactionCount;
+        this.amount = Money.toDecimal(amountCents);
+    }
+    
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+    
+    public Long getOperationTypeId() {
+        return operationTypeId;
+    }
+    
+    public void setOperationTypeId(Long operationTypeId) {
+        this.operationTypeId = operationTypeId;
+    }
+    
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+    
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,27 @@
+package com.visa.paymentservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class TransactionBatchRequest {
+    
+    @NotEmpty(message = "Transactions are required")
+    @Size(max = 10000, message = "A batch may contain at most 10000 transactions")
+    private List<@Valid TransactionRequest> transactions;
+    
+    public TransactionBatchRequest() {}
+    
+    public TransactionBatchRequest(List<TransactionRequest> transactions) {
+        this.transactions = transactions;
+    }
+    
+    public List<TransactionRequest> getTransactions() {
+        return transactions;
+    }
+    
+    public void setTransactions(List<TransactionRequest> transactions) {
+        this.transactions = transactions;
+    }
+}
@@ -0,0 +1,40 @@
+package com.visa.paymentservice.dto;
+
+public class TransactionBatchResult {
+    
+    private int index;
+    private Long transactionId;
+    private String error;
+    
+    public TransactionBatchResult() {}
+    
+    public TransactionBatchResult(int index, Long transactionId, String error) {
+        this.index = index;
+        this.transactionId = transactionId;
+        this.error = error;
+    }
+    
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public Long getTransactionId() {
+        return transactionId;
+    }
+    
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
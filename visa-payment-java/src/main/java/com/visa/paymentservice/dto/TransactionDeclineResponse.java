@@ -0,0 +1,44 @@
+package com.visa.paymentservice.dto;
+
+import com.visa.paymentservice.model.DeclineReason;
+
+import java.math.BigDecimal;
+
+public class TransactionDeclineResponse {
+    
+    private Long accountId;
+    private DeclineReason declineReason;
+    private BigDecimal availableLimit;
+    
+    public TransactionDeclineResponse() {}
+    
+    public TransactionDeclineResponse(Long accountId, DeclineReason declineReason, BigDecimal availableLimit) {
+        this.accountId = accountId;
+        this.declineReason = declineReason;
+        this.availableLimit = availableLimit;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public DeclineReason getDeclineReason() {
+        return declineReason;
+    }
+    
+    public void setDeclineReason(DeclineReason declineReason) {
+        this.declineReason = declineReason;
+    }
+    
+    public BigDecimal getAvailableLimit() {
+        return availableLimit;
+    }
+    
+    public void setAvailableLimit(BigDecimal availableLimit) {
+        this.availableLimit = availableLimit;
+    }
+}
@@ -0,0 +1,86 @@
+package com.visa.paymentservice.dto;
+
+import com.visa.paymentservice.model.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class TransactionEvent {
+    
+    private Long eventId;
+    private long accountSequence;
+    private Long transactionId;
+    private Long accountId;
+    private Long operationTypeId;
+    private BigDecimal amount;
+    private LocalDateTime eventDate;
+    
+    public TransactionEvent() {}
+    
+    public TransactionEvent(Long eventId, long accountSequence, Long transactionId, Long accountId, Long operationTypeId,
+                            long amountCents, LocalDateTime eventDate) {
+        this.eventId = eventId;
+        this.accountSequence = accountSequence;
+        this.transactionId = transactionId;
+        this.accountId = accountId;
+        this.operationTypeId = operationTypeId;
+        this.amount = Money.toDecimal(amountCents);
+        this.eventDate = eventDate;
+    }
+    
+    public Long getEventId() {
+        return eventId;
+    }
+    
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+    
+    public long getAccountSequence() {
+        return accountSequence;
+    }
+    
+    public void setAccountSequence(long accountSequence) {
+        this.accountSequence = accountSequence;
+    }
+    
+    public Long getTransactionId() {
+        return transactionId;
+    }
+    
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public Long getOperationTypeId() {
+        return operationTypeId;
+    }
+    
+    public void setOperationTypeId(Long operationTypeId) {
+        this.operationTypeId = operationTypeId;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
+    public LocalDateTime getEventDate() {
+        return eventDate;
+    }
+    
+    public void setEventDate(LocalDateTime eventDate) {
+        this.eventDate = eventDate;
+    }
+}
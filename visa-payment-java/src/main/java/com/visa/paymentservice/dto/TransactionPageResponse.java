@@ -0,0 +1,32 @@
+package com.visa.paymentservice.dto;
+
+import java.util.List;
+
+public class TransactionPageResponse {
+    
+    private List<TransactionResponse> transactions;
+    private String nextCursor;
+    
+    public TransactionPageResponse() {}
+    
+    public TransactionPageResponse(List<TransactionResponse> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<TransactionResponse> getTransactions() {
+        return transactions;
+    }
+    
+    public void setTransactions(List<TransactionResponse> transactions) {
+        this.transactions = transactions;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -1,5 +1,8 @@
 package com.visa.paymentservice.dto;
 
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
@@ -12,9 +15,17 @@ public class TransactionRequest {
     @NotNull(message = "Operation type ID is required")
     private Long operationTypeId;
     
+    // Must fit the ledger's fixed-point cents representation
     @NotNull(message = "Amount is required")
+    @Positive(message = "Amount must be positive")
+    @Digits(integer = 8, fraction = 2, message = "Amount must have at most 8 integer digits and 2 decimal places")
     private BigDecimal amount;
     
+    // Only for purchases with installments; absent means a single payment
+    @Min(value = 1, message = "Installments must be at least 1")
+    @Max(value = 72, message = "Installments must be at most 72")
+    private Integer installments;
+    
     public TransactionRequest() {}
     
     public TransactionRequest(Long accountId, Long operationTypeId, BigDecimal amount) {
@@ -23,6 +34,11 @@ public class TransactionRequest {
         this.amount = amount;
     }
     
+    public TransactionRequest(Long accountId, Long operationTypeId, BigDecimal amount, Integer installments) {
+        this(accountId, operationTypeId, amount);
+        this.installments = installments;
+    }
+    
     public Long getAccountId() {
         return accountId;
     }
@@ -46,4 +62,12 @@ public class TransactionRequest {
     public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
+    
+    public Integer getInstallments() {
+        return installments;
+    }
+    
+    public void setInstallments(Integer installments) {
+        this.installments = installments;
+    }
 }
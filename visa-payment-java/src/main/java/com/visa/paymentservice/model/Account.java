@@ -1,27 +1,38 @@
 package com.visa.paymentservice.model;
 
 import jakarta.persistence.*;
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.regex.Pattern;
 
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts", uniqueConstraints = @UniqueConstraint(name = "uk_accounts_document_number", columnNames = "document_number"))
 public class Account {
     
+    private static final String DOCUMENT_NUMBER_FORMAT = "%011d";
+    private static final Pattern DOCUMENT_NUMBER_PATTERN = Pattern.compile("^\\d{11}$");
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "account_id")
     private Long accountId;
     
-    @NotBlank(message = "Document number is required")
-    @Pattern(regexp = "^\\d{11}$", message = "Document number must be exactly 11 digits")
-    @Column(name = "document_number", unique = true, nullable = false)
-    private String documentNumber;
+    // The 11-digit document number is stored as a BIGINT, which keeps the unique index narrow
+    @NotNull(message = "Document number is required")
+    @Column(name = "document_number", nullable = false)
+    private Long documentNumber;
     
     public Account() {}
     
     public Account(String documentNumber) {
-        this.documentNumber = documentNumber;
+        this.documentNumber = toDocumentKey(documentNumber);
+    }
+    
+    public static Long toDocumentKey(String documentNumber) {
+        if (documentNumber == null || !DOCUMENT_NUMBER_PATTERN.matcher(documentNumber).matches()) {
+            throw new IllegalArgumentException("Document number must be exactly 11 digits");
+        }
+        return Long.valueOf(documentNumber);
     }
     
     public Long getAccountId() {
@@ -33,10 +44,10 @@ public class Account {
     }
     
     public String getDocumentNumber() {
-        return documentNumber;
+        return documentNumber == null ? null : String.format(DOCUMENT_NUMBER_FORMAT, documentNumber);
     }
     
     public void setDocumentNumber(String documentNumber) {
-        this.documentNumber = documentNumber;
+        this.documentNumber = toDocumentKey(documentNumber);
     }
 }
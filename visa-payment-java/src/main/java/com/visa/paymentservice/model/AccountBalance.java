@@ -0,0 +1,80 @@
+package com.visa.paymentservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "account_balances")
+public class AccountBalance {
+    
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+    
+    @Column(name = "balance_cents", nullable = false)
+    private long balanceCents;
+    
+    // Installments scheduled but not yet posted; signed like the balance
+    @Column(name = "outstanding_installment_cents", nullable = false)
+    private long outstandingInstallmentCents;
+    
+    // Last outbox sequence number drawn for the account
+    @Column(name = "event_sequence", nullable = false)
+    private long eventSequence;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public AccountBalance() {}
+    
+    public AccountBalance(Long accountId, long balanceCents) {
+        this(accountId, balanceCents, 0);
+    }
+    
+    public AccountBalance(Long accountId, long balanceCents, long outstandingInstallmentCents) {
+        this.accountId = accountId;
+        this.balanceCents = balanceCents;
+        this.outstandingInstallmentCents = outstandingInstallmentCents;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public long getBalanceCents() {
+        return balanceCents;
+    }
+    
+    public void setBalanceCents(long balanceCents) {
+        this.balanceCents = balanceCents;
+    }
+    
+    public long getOutstandingInstallmentCents() {
+        return outstandingInstallmentCents;
+    }
+    
+    public void setOutstandingInstallmentCents(long outstandingInstallmentCents) {
+        this.outstandingInstallmentCents = outstandingInstallmentCents;
+    }
+    
+    public long getEventSequence() {
+        return eventSequence;
+    }
+    
+    public void setEventSequence(long eventSequence) {
+        this.eventSequence = eventSequence;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
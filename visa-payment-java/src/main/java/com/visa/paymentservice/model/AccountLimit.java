@@ -0,0 +1,52 @@
+package com.visa.paymentservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// How far below zero the balance of an account may go. Accounts without a row use payment.limits.default-credit-limit
+@Entity
+@Table(name = "account_limits")
+public class AccountLimit {
+    
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+    
+    @Column(name = "credit_limit_cents", nullable = false)
+    private long creditLimitCents;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public AccountLimit() {}
+    
+    public AccountLimit(Long accountId, long creditLimitCents) {
+        this.accountId = accountId;
+        this.creditLimitCents = creditLimitCents;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public long getCreditLimitCents() {
+        return creditLimitCents;
+    }
+    
+    public void setCreditLimitCents(long creditLimitCents) {
+        this.creditLimitCents = creditLimitCents;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,94 @@
+package com.visa.paymentservice.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+// Sum of one account's transactions in one archived bucket, so a balance rebuild never needs the archive files
+@Entity
+@Table(name = "archived_account_sums")
+@IdClass(ArchivedAccountSum.Key.class)
+public class ArchivedAccountSum {
+    
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+    
+    @Id
+    @Column(name = "bucket")
+    private Integer bucket;
+    
+    // Signed, like the ledger amounts
+    @Column(name = "amount_cents", nullable = false)
+    private long amountCents;
+    
+    public ArchivedAccountSum() {}
+    
+    public ArchivedAccountSum(Long accountId, Integer bucket, long amountCents) {
+        this.accountId = accountId;
+        this.bucket = bucket;
+        this.amountCents = amountCents;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public Integer getBucket() {
+        return bucket;
+    }
+    
+    public void setBucket(Integer bucket) {
+        this.bucket = bucket;
+    }
+    
+    public long getAmountCents() {
+        return amountCents;
+    }
+    
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
+    }
+    
+    public static class Key implements Serializable {
+        
+        private Long accountId;
+        private Integer bucket;
+        
+        public Key() {}
+        
+        public Key(Long accountId, Integer bucket) {
+            this.accountId = accountId;
+            this.bucket = bucket;
+        }
+        
+        public Long getAccountId() {
+            return accountId;
+        }
+        
+        public Integer getBucket() {
+            return bucket;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(accountId, other.accountId) && Objects.equals(bucket, other.bucket);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, bucket);
+        }
+    }
+}
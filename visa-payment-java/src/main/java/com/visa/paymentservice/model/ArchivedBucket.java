@@ -0,0 +1,52 @@
+package com.visa.paymentservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A month moved out of the transactions table into an archive file. Recorded in the transaction that deletes its rows
+@Entity
+@Table(name = "archived_buckets")
+public class ArchivedBucket {
+    
+    @Id
+    @Column(name = "bucket")
+    private Integer bucket;
+    
+    @Column(name = "row_count", nullable = false)
+    private int rowCount;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+    
+    public ArchivedBucket() {}
+    
+    public ArchivedBucket(Integer bucket, int rowCount, LocalDateTime archivedAt) {
+        this.bucket = bucket;
+        this.rowCount = rowCount;
+        this.archivedAt = archivedAt;
+    }
+    
+    public Integer getBucket() {
+        return bucket;
+    }
+    
+    public void setBucket(Integer bucket) {
+        this.bucket = bucket;
+    }
+    
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    public void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+    
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+    
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
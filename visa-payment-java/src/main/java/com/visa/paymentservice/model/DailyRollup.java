@@ -0,0 +1,128 @@
+package com.visa.paymentservice.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Count and sum of one account's transactions of one operation type on one day, kept up to date as the
+// transactions are written. Rows outlive the archiving of their transactions
+@Entity
+@Table(name = "daily_rollups")
+@IdClass(DailyRollup.Key.class)
+public class DailyRollup {
+    
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+    
+    @Id
+    @Column(name = "rollup_date")
+    private LocalDate rollupDate;
+    
+    @Id
+    @Column(name = "operation_type_id")
+    private Long operationTypeId;
+    
+    @Column(name = "transaction_count", nullable = false)
+    private long transactionCount;
+    
+    // Signed, like the ledger amounts
+    @Column(name = "amount_cents", nullable = false)
+    private long amountCents;
+    
+    public DailyRollup() {}
+    
+    public DailyRollup(Key key, long transactionCount, long amountCents) {
+        this.accountId = key.accountId;
+        this.rollupDate = key.rollupDate;
+        this.operationTypeId = key.operationTypeId;
+        this.transactionCount = transactionCount;
+        this.amountCents = amountCents;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public LocalDate getRollupDate() {
+        return rollupDate;
+    }
+    
+    public void setRollupDate(LocalDate rollupDate) {
+        this.rollupDate = rollupDate;
+    }
+    
+    public Long getOperationTypeId() {
+        return operationTypeId;
+    }
+    
+    public void setOperationTypeId(Long operationTypeId) {
+        this.operationTypeId = operationTypeId;
+    }
+    
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+    
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+    
+    public long getAmountCents() {
+        return amountCents;
+    }
+    
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
+    }
+    
+    public static class Key implements Serializable {
+        
+        private Long accountId;
+        private LocalDate rollupDate;
+        private Long operationTypeId;
+        
+        public Key() {}
+        
+        public Key(Long accountId, LocalDate rollupDate, Long operationTypeId) {
+            this.accountId = accountId;
+            this.rollupDate = rollupDate;
+            this.operationTypeId = operationTypeId;
+        }
+        
+        public Long getAccountId() {
+            return accountId;
+        }
+        
+        public LocalDate getRollupDate() {
+            return rollupDate;
+        }
+        
+        public Long getOperationTypeId() {
+            return operationTypeId;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(accountId, other.accountId) && Objects.equals(rollupDate, other.rollupDate)
+                    && Objects.equals(operationTypeId, other.operationTypeId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, rollupDate, operationTypeId);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.visa.paymentservice.model;
+
+public enum DeclineReason {
+    
+    // The debit would take the balance below the negative of the account's credit limit
+    INSUFFICIENT_LIMIT
+}
@@ -0,0 +1,114 @@
+package com.visa.paymentservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+    
+    @Id
+    @Column(name = "idempotency_key", length = 128)
+    private String idempotencyKey;
+    
+    // The original response is kept in full so a replay never has to read the ledger
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    @Column(name = "operation_type_id", nullable = false)
+    private Long operationTypeId;
+    
+    @Column(name = "amount_cents", nullable = false)
+    private long amountCents;
+    
+    @Column(name = "event_date", nullable = false)
+    private LocalDateTime eventDate;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // SHA-256 of the request, hex encoded, so a key reused for a different request is detected
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+    
+    public IdempotencyRecord() {}
+    
+    public IdempotencyRecord(String idempotencyKey, Long transactionId, Long accountId, Long operationTypeId,
+                             long amountCents, LocalDateTime eventDate, String requestHash) {
+        this.idempotencyKey = idempotencyKey;
+        this.transactionId = transactionId;
+        this.accountId = accountId;
+        this.operationTypeId = operationTypeId;
+        this.amountCents = amountCents;
+        this.eventDate = eventDate;
+        this.createdAt = LocalDateTime.now();
+        this.requestHash = requestHash;
+    }
+    
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    public Long getTransactionId() {
+        return transactionId;
+    }
+    
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public Long getOperationTypeId() {
+        return operationTypeId;
+    }
+    
+    public void setOperationTypeId(Long operationTypeId) {
+        this.operationTypeId = operationTypeId;
+    }
+    
+    public long getAmountCents() {
+        return amountCents;
+    }
+    
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
+    }
+    
+    public LocalDateTime getEventDate() {
+        return eventDate;
+    }
+    
+    public void setEventDate(LocalDateTime eventDate) {
+        this.eventDate = eventDate;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public String getRequestHash() {
+        return requestHash;
+    }
+    
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+}
@@ -0,0 +1,147 @@
+package com.visa.paymentservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// The installments of one purchase still to be posted, kept as a single row rather than one row per installment.
+// The first installment is posted with the purchase; the others all have the same amount
+@Entity
+@Table(name = "installment_schedules", indexes = {
+        @Index(name = "idx_installment_schedules_next_due_date", columnList = "next_due_date"),
+        @Index(name = "idx_installment_schedules_account", columnList = "account_id")
+})
+public class InstallmentSchedule {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "installment_schedule_seq")
+    @SequenceGenerator(name = "installment_schedule_seq", sequenceName = "installment_schedule_seq", allocationSize = 50)
+    @Column(name = "schedule_id")
+    private Long scheduleId;
+    
+    @Column(name = "purchase_transaction_id", nullable = false)
+    private Long purchaseTransactionId;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    @Column(name = "operation_type_id", nullable = false)
+    private Long operationTypeId;
+    
+    // Signed, like the ledger amounts
+    @Column(name = "installment_cents", nullable = false)
+    private long installmentCents;
+    
+    @Column(name = "installment_count", nullable = false)
+    private int installmentCount;
+    
+    @Column(name = "installments_posted", nullable = false)
+    private int installmentsPosted;
+    
+    @Column(name = "purchase_date", nullable = false)
+    private LocalDate purchaseDate;
+    
+    // Null once every installment has been posted, so finished schedules drop out of the due scan
+    @Column(name = "next_due_date")
+    private LocalDate nextDueDate;
+    
+    public InstallmentSchedule() {}
+    
+    public InstallmentSchedule(Long purchaseTransactionId, Long accountId, Long operationTypeId, long installmentCents,
+                               int installmentCount, LocalDate purchaseDate) {
+        this.purchaseTransactionId = purchaseTransactionId;
+        this.accountId = accountId;
+        this.operationTypeId = operationTypeId;
+        this.installmentCents = installmentCents;
+        this.installmentCount = installmentCount;
+        this.installmentsPosted = 1;
+        this.purchaseDate = purchaseDate;
+        this.nextDueDate = purchaseDate.plusMonths(1);
+    }
+    
+    // Due dates are counted from the purchase date, so a purchase on the 31st does not drift to the 28th
+    public void markPosted() {
+        installmentsPosted++;
+        nextDueDate = dueDateAfter(installmentsPosted);
+    }
+    
+    // Null once all installments have been posted
+    public LocalDate dueDateAfter(int posted) {
+        return posted < installmentCount ? purchaseDate.plusMonths(posted) : null;
+    }
+    
+    public long getOutstandingCents() {
+        return installmentCents * (installmentCount - installmentsPosted);
+    }
+    
+    public Long getScheduleId() {
+        return scheduleId;
+    }
+    
+    public void setScheduleId(Long scheduleId) {
+        this.scheduleId = scheduleId;
+    }
+    
+    public Long getPurchaseTransactionId() {
+        return purchaseTransactionId;
+    }
+    
+    public void setPurchaseTransactionId(Long purchaseTransactionId) {
+        this.purchaseTransactionId = purchaseTransactionId;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public Long getOperationTypeId() {
+        return operationTypeId;
+    }
+    
+    public void setOperationTypeId(Long operationTypeId) {
+        this.operationTypeId = operationTypeId;
+    }
+    
+    public long getInstallmentCents() {
+        return installmentCents;
+    }
+    
+    public void setInstallmentCents(long installmentCents) {
+        this.installmentCents = installmentCents;
+    }
+    
+    public int getInstallmentCount() {
+        return installmentCount;
+    }
+    
+    public void setInstallmentCount(int installmentCount) {
+        this.installmentCount = installmentCount;
+    }
+    
+    public int getInstallmentsPosted() {
+        return installmentsPosted;
+    }
+    
+    public void setInstallmentsPosted(int installmentsPosted) {
+        this.installmentsPosted = installmentsPosted;
+    }
+    
+    public LocalDate getPurchaseDate() {
+        return purchaseDate;
+    }
+    
+    public void setPurchaseDate(LocalDate purchaseDate) {
+        this.purchaseDate = purchaseDate;
+    }
+    
+    public LocalDate getNextDueDate() {
+        return nextDueDate;
+    }
+    
+    public void setNextDueDate(LocalDate nextDueDate) {
+        this.nextDueDate = nextDueDate;
+    }
+}
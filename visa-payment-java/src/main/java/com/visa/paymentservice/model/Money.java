@@ -0,0 +1,26 @@
+package com.visa.paymentservice.model;
+
+import java.math.BigDecimal;
+
+// Amounts are carried as long minor units (cents) between the API boundary and the database
+public final class Money {
+    
+    public static final int SCALE = 2;
+    
+    private Money() {}
+    
+    public static long toCents(BigDecimal amount) {
+        if (amount.scale() > SCALE && amount.stripTrailingZeros().scale() > SCALE) {
+            throw new IllegalArgumentException("Amount " + amount + " has more than " + SCALE + " decimal places");
+        }
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount + " is out of range", e);
+        }
+    }
+    
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+}
@@ -0,0 +1,31 @@
+package com.visa.paymentservice.model;
+
+public enum OperationCategory {
+    
+    // Purchases and withdrawals take money out of the account
+    DEBIT(-1),
+    // Credit vouchers put money into the account
+    CREDIT(1);
+    
+    private final int sign;
+    
+    OperationCategory(int sign) {
+        this.sign = sign;
+    }
+    
+    public int getSign() {
+        return sign;
+    }
+    
+    public long apply(long amountCents) {
+        return sign * amountCents;
+    }
+    
+    public static OperationCategory fromDescription(String description) {
+        String normalized = description.toLowerCase();
+        if (normalized.contains("purchase") || normalized.contains("withdrawal")) {
+            return DEBIT;
+        }
+        return CREDIT;
+    }
+}
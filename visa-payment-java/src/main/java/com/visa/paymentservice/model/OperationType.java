@@ -14,10 +14,28 @@ public class OperationType {
     @Column(name = "description", nullable = false)
     private String description;
     
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category", nullable = false)
+    private OperationCategory category;
+    
+    // Only these types may be split into installments
+    @Column(name = "installments_allowed", nullable = false)
+    private boolean installmentsAllowed;
+    
     public OperationType() {}
     
     public OperationType(String description) {
+        this(description, OperationCategory.fromDescription(description));
+    }
+    
+    public OperationType(String description, OperationCategory category) {
+        this(description, category, false);
+    }
+    
+    public OperationType(String description, OperationCategory category, boolean installmentsAllowed) {
         this.description = description;
+        this.category = category;
+        this.installmentsAllowed = installmentsAllowed;
     }
     
     public Long getOperationTypeId() {
@@ -35,4 +53,20 @@ public class OperationType {
     public void setDescription(String description) {
         this.description = description;
     }
+    
+    public OperationCategory getCategory() {
+        return category;
+    }
+    
+    public void setCategory(OperationCategory category) {
+        this.category = category;
+    }
+    
+    public boolean isInstallmentsAllowed() {
+        return installmentsAllowed;
+    }
+    
+    public void setInstallmentsAllowed(boolean installmentsAllowed) {
+        this.installmentsAllowed = installmentsAllowed;
+    }
 }
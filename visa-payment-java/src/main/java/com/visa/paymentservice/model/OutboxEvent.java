@@ -0,0 +1,115 @@
+package com.visa.paymentservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A transaction waiting to be relayed to downstream consumers. The row is deleted once it has been published
+@Entity
+@Table(name = "transaction_outbox")
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_outbox_seq")
+    @SequenceGenerator(name = "transaction_outbox_seq", sequenceName = "transaction_outbox_seq", allocationSize = 50)
+    @Column(name = "event_id")
+    private Long eventId;
+    
+    // Position among the events of the account; the relay publishes in this order
+    @Column(name = "account_sequence", nullable = false)
+    private long accountSequence;
+    
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    @Column(name = "operation_type_id", nullable = false)
+    private Long operationTypeId;
+    
+    @Column(name = "amount_cents", nullable = false)
+    private long amountCents;
+    
+    @Column(name = "event_date", nullable = false)
+    private LocalDateTime eventDate;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    public OutboxEvent() {}
+    
+    public OutboxEvent(long accountSequence, Long transactionId, Long accountId, Long operationTypeId, long amountCents,
+                       LocalDateTime eventDate) {
+        this.accountSequence = accountSequence;
+        this.transactionId = transactionId;
+        this.accountId = accountId;
+        this.operationTypeId = operationTypeId;
+        this.amountCents = amountCents;
+        this.eventDate = eventDate;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public Long getEventId() {
+        return eventId;
+    }
+    
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+    
+    public long getAccountSequence() {
+        return accountSequence;
+    }
+    
+    public void setAccountSequence(long accountSequence) {
+        this.accountSequence = accountSequence;
+    }
+    
+    public Long getTransactionId() {
+        return transactionId;
+    }
+    
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public Long getOperationTypeId() {
+        return operationTypeId;
+    }
+    
+    public void setOperationTypeId(Long operationTypeId) {
+        this.operationTypeId = operationTypeId;
+    }
+    
+    public long getAmountCents() {
+        return amountCents;
+    }
+    
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
+    }
+    
+    public LocalDateTime getEventDate() {
+        return eventDate;
+    }
+    
+    public void setEventDate(LocalDateTime eventDate) {
+        this.eventDate = eventDate;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -2,16 +2,19 @@ package com.visa.paymentservice.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_account_event_date", columnList = "account_id, event_date, transaction_id")
+})
 public class Transaction {
     
+    // Pooled sequence ids let Hibernate assign ids without a round trip and batch the inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     @Column(name = "transaction_id")
     private Long transactionId;
     
@@ -25,22 +28,27 @@ public class Transaction {
     @NotNull(message = "Operation type is required")
     private OperationType operationType;
     
-    @NotNull(message = "Amount is required")
-    @Column(name = "amount", nullable = false, precision = 10, scale = 2)
-    private BigDecimal amount;
+    // Signed amount in cents
+    @Column(name = "amount_cents", nullable = false)
+    private long amountCents;
     
     @Column(name = "event_date", nullable = false)
     private LocalDateTime eventDate;
     
+    // Month of event_date; old buckets are moved out of this table by TransactionArchiver
+    @Column(name = "bucket", nullable = false)
+    private int bucket;
+    
     public Transaction() {
         this.eventDate = LocalDateTime.now();
+        this.bucket = TransactionBucket.of(eventDate);
     }
     
-    public Transaction(Account account, OperationType operationType, BigDecimal amount) {
+    public Transaction(Account account, OperationType operationType, long amountCents) {
         this();
         this.account = account;
         this.operationType = operationType;
-        this.amount = amount;
+        this.amountCents = amountCents;
     }
     
     public Long getTransactionId() {
@@ -67,12 +75,16 @@ public class Transaction {
         this.operationType = operationType;
     }
     
-    public BigDecimal getAmount() {
-        return amount;
+    public long getAmountCents() {
+        return amountCents;
     }
     
-    public void setAmount(BigDecimal amount) {
-        this.amount = amount;
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
+    }
+    
+    public BigDecimal getAmount() {
+        return Money.toDecimal(amountCents);
     }
     
     public LocalDateTime getEventDate() {
@@ -81,5 +93,10 @@ public class Transaction {
     
     public void setEventDate(LocalDateTime eventDate) {
         this.eventDate = eventDate;
+        this.bucket = TransactionBucket.of(eventDate);
+    }
+    
+    public int getBucket() {
+        return bucket;
     }
 }
@@ -0,0 +1,27 @@
+package com.visa.paymentservice.model;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+// Transactions are bucketed by the calendar month of event_date, encoded as yyyyMM (e.g. 202401)
+public final class TransactionBucket {
+    
+    private TransactionBucket() {}
+    
+    public static int of(LocalDateTime eventDate) {
+        return eventDate.getYear() * 100 + eventDate.getMonthValue();
+    }
+    
+    public static LocalDateTime start(int bucket) {
+        return toYearMonth(bucket).atDay(1).atStartOfDay();
+    }
+    
+    public static int minusMonths(int bucket, int months) {
+        YearMonth month = toYearMonth(bucket).minusMonths(months);
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+    
+    private static YearMonth toYearMonth(int bucket) {
+        return YearMonth.of(bucket / 100, bucket % 100);
+    }
+}
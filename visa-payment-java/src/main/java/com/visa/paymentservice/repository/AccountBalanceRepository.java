@@ -0,0 +1,43 @@
+package com.visa.paymentservice.repository;
+
+import com.visa.paymentservice.model.AccountBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AccountBalanceRepository extends JpaRepository<AccountBalance, Long> {
+    
+    // Reads the column directly so in-place updates made in the same transaction are visible
+    @Query("select b.balanceCents from AccountBalance b where b.accountId = :accountId")
+    Optional<Long> findBalanceCentsByAccountId(@Param("accountId") Long accountId);
+    
+    // The row lock addToBalance takes, without changing the row; held until the transaction ends
+    @Query(value = "select balance_cents from account_balances where account_id = :accountId for update", nativeQuery = true)
+    Optional<Long> lockBalance(@Param("accountId") Long accountId);
+    
+    // What the account has committed to: its balance plus the installments still to be posted
+    @Query("select b.balanceCents + b.outstandingInstallmentCents from AccountBalance b where b.accountId = :accountId")
+    Optional<Long> findCommittedCentsByAccountId(@Param("accountId") Long accountId);
+    
+    // Single in-place update, so concurrent writers never lose an increment
+    @Modifying(flushAutomatically = true)
+    @Query("update AccountBalance b set b.balanceCents = b.balanceCents + :deltaCents, " +
+            "b.outstandingInstallmentCents = b.outstandingInstallmentCents + :outstandingDeltaCents, b.updatedAt = :updatedAt " +
+            "where b.accountId = :accountId")
+    int addToBalance(@Param("accountId") Long accountId, @Param("deltaCents") long deltaCents,
+                     @Param("outstandingDeltaCents") long outstandingDeltaCents, @Param("updatedAt") LocalDateTime updatedAt);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("update AccountBalance b set b.eventSequence = b.eventSequence + :count where b.accountId = :accountId")
+    int addToEventSequence(@Param("accountId") Long accountId, @Param("count") long count);
+    
+    // Reads the column directly, like findBalanceCentsByAccountId, so the update above is visible
+    @Query("select b.eventSequence from AccountBalance b where b.accountId = :accountId")
+    long findEventSequence(@Param("accountId") Long accountId);
+}
@@ -0,0 +1,16 @@
+package com.visa.paymentservice.repository;
+
+import com.visa.paymentservice.model.AccountLimit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AccountLimitRepository extends JpaRepository<AccountLimit, Long> {
+    
+    @Query("select l.creditLimitCents from AccountLimit l where l.accountId = :accountId")
+    Optional<Long> findCreditLimitCentsByAccountId(@Param("accountId") Long accountId);
+}
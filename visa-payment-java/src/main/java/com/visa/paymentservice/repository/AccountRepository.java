@@ -2,14 +2,19 @@ package com.visa.paymentservice.repository;
 
 import com.visa.paymentservice.model.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
     
-    Optional<Account> findByDocumentNumber(String documentNumber);
+    Optional<Account> findByDocumentNumber(Long documentNumber);
     
-    boolean existsByDocumentNumber(String documentNumber);
+    @Query("select a.accountId from Account a where a.accountId in :accountIds")
+    List<Long> findExistingAccountIds(@Param("accountIds") Collection<Long> accountIds);
 }
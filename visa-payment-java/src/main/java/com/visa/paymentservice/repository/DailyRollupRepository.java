@@ -0,0 +1,31 @@
+package com.visa.paymentservice.repository;
+
+import com.visa.paymentservice.dto.DailySummaryResponse;
+import com.visa.paymentservice.model.DailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyRollupRepository extends JpaRepository<DailyRollup, DailyRollup.Key> {
+    
+    // Single in-place update, like the balance; 0 means the day has no row for this operation type yet
+    @Modifying(flushAutomatically = true)
+    @Query("update DailyRollup r set r.transactionCount = r.transactionCount + :count, r.amountCents = r.amountCents + :amountCents " +
+            "where r.accountId = :accountId and r.rollupDate = :rollupDate and r.operationTypeId = :operationTypeId")
+    int addToRollup(@Param("accountId") Long accountId, @Param("rollupDate") LocalDate rollupDate,
+                    @Param("operationTypeId") Long operationTypeId, @Param("count") long count,
+                    @Param("amountCents") long amountCents);
+    
+    // A range scan on the primary key, at most one row per day and operation type
+    @Query("select new com.visa.paymentservice.dto.DailySummaryResponse(r.rollupDate, r.operationTypeId, r.transactionCount, r.amountCents) " +
+            "from DailyRollup r where r.accountId = :accountId and r.rollupDate >= :from and r.rollupDate < :to " +
+            "order by r.rollupDate, r.operationTypeId")
+    List<DailySummaryResponse> findDays(@Param("accountId") Long accountId, @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to);
+}
@@ -0,0 +1,44 @@
+package com.visa.paymentservice.repository;
+
+import com.visa.paymentservice.model.InstallmentSchedule;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface InstallmentScheduleRepository extends JpaRepository<InstallmentSchedule, Long> {
+    
+    // A range scan on idx_installment_schedules_next_due_date; schedules that are not due are never read.
+    // Not read-only, so the processor always reads the primary even when a replica is configured
+    @Transactional
+    @Query("select s from InstallmentSchedule s where s.nextDueDate <= :today order by s.nextDueDate, s.scheduleId")
+    List<InstallmentSchedule> findDue(@Param("today") LocalDate today, Pageable pageable);
+    
+    @Query("select s from InstallmentSchedule s where s.scheduleId in :scheduleIds and s.nextDueDate <= :today")
+    List<InstallmentSchedule> findDueByIds(@Param("scheduleIds") List<Long> scheduleIds, @Param("today") LocalDate today);
+    
+    // Only advances a schedule that still has the postings it was read with; returns 0 if another run got there first
+    @Modifying
+    @Query("update InstallmentSchedule s set s.installmentsPosted = :installmentsPosted, s.nextDueDate = :nextDueDate " +
+            "where s.scheduleId = :scheduleId and s.installmentsPosted = :expectedPosted")
+    int advance(@Param("scheduleId") Long scheduleId, @Param("expectedPosted") int expectedPosted,
+                @Param("installmentsPosted") int installmentsPosted, @Param("nextDueDate") LocalDate nextDueDate);
+    
+    // Moves the due date without posting, on the same condition as advance
+    @Modifying
+    @Query("update InstallmentSchedule s set s.nextDueDate = :nextDueDate " +
+            "where s.scheduleId = :scheduleId and s.installmentsPosted = :expectedPosted")
+    int defer(@Param("scheduleId") Long scheduleId, @Param("expectedPosted") int expectedPosted,
+              @Param("nextDueDate") LocalDate nextDueDate);
+    
+    @Query("select coalesce(sum(s.installmentCents * (s.installmentCount - s.installmentsPosted)), 0) " +
+            "from InstallmentSchedule s where s.accountId = :accountId and s.nextDueDate is not null")
+    long sumOutstandingCentsByAccountId(@Param("accountId") Long accountId);
+}
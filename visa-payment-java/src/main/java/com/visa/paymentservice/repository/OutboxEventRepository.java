@@ -0,0 +1,20 @@
+package com.visa.paymentservice.repository;
+
+import com.visa.paymentservice.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    // Not read-only, so the relay always reads the primary even when a replica is configured. Ordered by account
+    // sequence first, so a page that holds an event of an account also holds every earlier one still waiting
+    @Transactional
+    @Query("select e from OutboxEvent e order by e.accountSequence, e.eventId")
+    List<OutboxEvent> findNext(Pageable pageable);
+}
@@ -1,13 +1,45 @@
 package com.visa.paymentservice.repository;
 
+import com.visa.paymentservice.dto.TransactionResponse;
 import com.visa.paymentservice.model.Transaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     
     List<Transaction> findByAccountAccountId(Long accountId);
+    
+    // Buckets up to archivedThrough have been moved to TransactionArchive
+    @Query("select coalesce(sum(t.amountCents), 0) from Transaction t where t.account.accountId = :accountId and t.bucket > :archivedThrough")
+    long sumAmountCentsByAccountId(@Param("accountId") Long accountId, @Param("archivedThrough") int archivedThrough);
+    
+    // Keyset pagination over (event_date, transaction_id), served by idx_transactions_account_event_date.
+    // The event date bounds are a range on that index, so they need no bucket predicate
+    @Query("select new com.visa.paymentservice.dto.TransactionResponse(t.transactionId, t.account.accountId, t.operationType.operationTypeId, t.amountCents, t.eventDate) " +
+            "from Transaction t where t.account.accountId = :accountId " +
+            "and t.eventDate >= :from and t.eventDate < :to " +
+            "order by t.eventDate, t.transactionId")
+    List<TransactionResponse> findFirstPage(@Param("accountId") Long accountId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to,
+                                            Pageable pageable);
+    
+    @Query("select new com.visa.paymentservice.dto.TransactionResponse(t.transactionId, t.account.accountId, t.operationType.operationTypeId, t.amountCents, t.eventDate) " +
+            "from Transaction t where t.account.accountId = :accountId " +
+            "and t.eventDate >= :from and t.eventDate < :to " +
+            "and (t.eventDate > :eventDate or (t.eventDate = :eventDate and t.transactionId > :transactionId)) " +
+            "order by t.eventDate, t.transactionId")
+    List<TransactionResponse> findPageAfter(@Param("accountId") Long accountId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to,
+                                            @Param("eventDate") LocalDateTime eventDate,
+                                            @Param("transactionId") Long transactionId,
+                                            Pageable pageable);
 }
@@ -0,0 +1,82 @@
+package com.visa.paymentservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.visa.paymentservice.repository.AccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+public class AccountIdCache {
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${payment.account-cache.maximum-size:100000}")
+    private long maximumSize;
+    
+    // Only ids known to exist are cached; accounts are never deleted, so entries cannot go stale
+    private Cache<Long, Boolean> knownAccountIds;
+    
+    @PostConstruct
+    void init() {
+        knownAccountIds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        // Publishes cache.gets (hit/miss), cache.evictions and cache.size under /actuator/metrics
+        CaffeineCacheMetrics.monitor(meterRegistry, knownAccountIds, "accountIds");
+    }
+    
+    // Not read-only, so a lookup made ahead of a write reaches the primary: the replica may not have an account
+    // created a moment ago. Inside a read-only transaction it joins that transaction and reads the replica
+    @Transactional
+    public boolean exists(Long accountId) {
+        if (knownAccountIds.getIfPresent(accountId) != null) {
+            return true;
+        }
+        if (accountRepository.existsById(accountId)) {
+            knownAccountIds.put(accountId, Boolean.TRUE);
+            return true;
+        }
+        return false;
+    }
+    
+    @Transactional
+    public Set<Long> existing(Collection<Long> accountIds) {
+        Set<Long> existing = new HashSet<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long accountId : accountIds) {
+            if (knownAccountIds.getIfPresent(accountId) != null) {
+                existing.add(accountId);
+            } else {
+                misses.add(accountId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (Long accountId : accountRepository.findExistingAccountIds(misses)) {
+                knownAccountIds.put(accountId, Boolean.TRUE);
+                existing.add(accountId);
+            }
+        }
+        return existing;
+    }
+    
+    public void add(Long accountId) {
+        knownAccountIds.put(accountId, Boolean.TRUE);
+    }
+}
@@ -0,0 +1,237 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.dto.AccountImportResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+public class AccountImportService {
+    
+    private static final String INSERT_ACCOUNT = "insert into accounts (document_number) values (?)";
+    // Every account gets its balance row with it, as in AccountService.createAccount
+    private static final String INSERT_BALANCE = "insert into account_balances (account_id, balance_cents, " +
+            "outstanding_installment_cents, event_sequence, updated_at) " +
+            "select account_id, 0, 0, 0, localtimestamp from accounts where document_number = ?";
+    private static final String SELECT_EXISTING = "select document_number from accounts where document_number in (:documentNumbers)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${payment.account-import.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${payment.account-import.rejects-dir:${java.io.tmpdir}}")
+    private Path rejectsDir;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    public AccountImportResult importCsv(Path csvFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+            return importCsv(reader);
+        }
+    }
+    
+    // Reads one line at a time and keeps no more than one batch in memory, however large the file
+    public AccountImportResult importCsv(BufferedReader reader) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Files.createDirectories(rejectsDir);
+        String rejectsId = UUID.randomUUID().toString();
+        Path rejectsFile = rejectsPath(rejectsId);
+        
+        ImportRun run;
+        try (BufferedWriter rejects = Files.newBufferedWriter(rejectsFile, StandardCharsets.UTF_8)) {
+            rejects.write("line,document_number,reason");
+            rejects.newLine();
+            run = new ImportRun(rejects);
+            
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String documentNumber = firstColumn(line);
+                if (documentNumber.isEmpty() || (lineNumber == 1 && isHeader(documentNumber))) {
+                    continue;
+                }
+                if (!isDocumentNumber(documentNumber)) {
+                    run.reject(lineNumber, documentNumber, "Document number must be exactly 11 digits");
+                    continue;
+                }
+                run.add(lineNumber, Long.valueOf(documentNumber));
+            }
+            run.flush();
+        } finally {
+            sample.stop(meterRegistry.timer("payment.account.import"));
+        }
+        meterRegistry.counter("payment.account.import.rows", "outcome", "imported").increment(run.imported);
+        meterRegistry.counter("payment.account.import.rows", "outcome", "rejected").increment(run.rejected);
+        
+        if (run.rejected == 0) {
+            Files.delete(rejectsFile);
+            return new AccountImportResult(run.imported, run.duplicates, run.rejected, null);
+        }
+        return new AccountImportResult(run.imported, run.duplicates, run.rejected, rejectsId);
+    }
+    
+    // Only ids handed out by importCsv resolve, so a caller cannot reach other files in the directory
+    public Optional<Path> findRejects(String rejectsId) {
+        try {
+            UUID.fromString(rejectsId);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        Path rejectsFile = rejectsPath(rejectsId);
+        return Files.isRegularFile(rejectsFile) ? Optional.of(rejectsFile) : Optional.empty();
+    }
+    
+    private Path rejectsPath(String rejectsId) {
+        return rejectsDir.resolve("account-import-" + rejectsId + "-rejects.csv");
+    }
+    
+    // State of one import. Repeats are only looked for within a batch; earlier batches are already committed,
+    // so the existing-documents query finds them
+    private class ImportRun {
+        
+        private final BufferedWriter rejects;
+        private final List<Long> documentNumbers = new ArrayList<>(batchSize);
+        private final List<Long> lineNumbers = new ArrayList<>(batchSize);
+        private final Set<Long> inBatch = new HashSet<>();
+        private long imported;
+        private long duplicates;
+        private long rejected;
+        
+        ImportRun(BufferedWriter rejects) {
+            this.rejects = rejects;
+        }
+        
+        void add(long lineNumber, Long documentNumber) throws IOException {
+            if (!inBatch.add(documentNumber)) {
+                duplicates++;
+                return;
+            }
+            documentNumbers.add(documentNumber);
+            lineNumbers.add(lineNumber);
+            if (documentNumbers.size() == batchSize) {
+                flush();
+            }
+        }
+        
+        void reject(long lineNumber, String value, String reason) throws IOException {
+            rejects.write(lineNumber + ",\"" + value.replace("\"", "\"\"") + "\"," + reason);
+            rejects.newLine();
+            rejected++;
+        }
+        
+        // Documents already present in the database are counted as duplicates instead of failing the batch
+        void flush() throws IOException {
+            if (documentNumbers.isEmpty()) {
+                return;
+            }
+            Set<Long> existing = new HashSet<>(namedParameterJdbcTemplate.queryForList(SELECT_EXISTING,
+                    new MapSqlParameterSource("documentNumbers", documentNumbers), Long.class));
+            List<Object[]> rows = new ArrayList<>(documentNumbers.size());
+            List<Long> rowLines = new ArrayList<>(documentNumbers.size());
+            for (int i = 0; i < documentNumbers.size(); i++) {
+                if (existing.contains(documentNumbers.get(i))) {
+                    duplicates++;
+                } else {
+                    rows.add(new Object[]{documentNumbers.get(i)});
+                    rowLines.add(lineNumbers.get(i));
+                }
+            }
+            if (!rows.isEmpty()) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        jdbcTemplate.batchUpdate(INSERT_ACCOUNT, rows);
+                        jdbcTemplate.batchUpdate(INSERT_BALANCE, rows);
+                    });
+                    imported += rows.size();
+                } catch (DataIntegrityViolationException e) {
+                    // Inserted by someone else since the query; the unique constraint decides row by row
+                    insertEach(rows, rowLines);
+                }
+            }
+            documentNumbers.clear();
+            lineNumbers.clear();
+            inBatch.clear();
+        }
+        
+        private void insertEach(List<Object[]> rows, List<Long> rowLines) throws IOException {
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        jdbcTemplate.update(INSERT_ACCOUNT, row);
+                        jdbcTemplate.update(INSERT_BALANCE, row);
+                    });
+                    imported++;
+                } catch (DataIntegrityViolationException e) {
+                    reject(rowLines.get(i), String.format("%011d", row[0]), "Document number already exists");
+                }
+            }
+        }
+    }
+    
+    private static String firstColumn(String line) {
+        int comma = line.indexOf(',');
+        String column = (comma < 0 ? line : line.substring(0, comma)).trim();
+        if (column.length() >= 2 && column.startsWith("\"") && column.endsWith("\"")) {
+            column = column.substring(1, column.length() - 1).trim();
+        }
+        return column;
+    }
+    
+    private static boolean isHeader(String column) {
+        return column.equalsIgnoreCase("document_number") || column.equalsIgnoreCase("documentNumber");
+    }
+    
+    // Hand-rolled instead of a regex, this runs once per line of the file
+    private static boolean isDocumentNumber(String column) {
+        if (column.length() != 11) {
+            return false;
+        }
+        for (int i = 0; i < column.length(); i++) {
+            char c = column.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
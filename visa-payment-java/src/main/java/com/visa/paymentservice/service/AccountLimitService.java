@@ -0,0 +1,187 @@
+package com.visa.paymentservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.visa.paymentservice.dto.AccountLimitResponse;
+import com.visa.paymentservice.model.AccountLimit;
+import com.visa.paymentservice.model.Money;
+import com.visa.paymentservice.repository.AccountBalanceRepository;
+import com.visa.paymentservice.repository.AccountLimitRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Authorizes debits against what each account has available (balance, plus installments still to be posted,
+// plus credit limit), kept in memory so the check reads no row and sums no history. Only a thread holding the
+// account lock loads or changes an entry, and LedgerWriter moves it with every write. A write that rolls back
+// drops the entries it moved, so the next authorization reloads them from the database
+@Component
+public class AccountLimitService {
+    
+    @Autowired
+    private AccountBalanceRepository accountBalanceRepository;
+    
+    @Autowired
+    private AccountLimitRepository accountLimitRepository;
+    
+    @Autowired
+    private AccountIdCache accountIdCache;
+    
+    @Autowired
+    private AccountLocks accountLocks;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${payment.limits.enabled:true}")
+    private boolean enabled;
+    
+    // Applies to accounts without a row in account_limits
+    @Value("${payment.limits.default-credit-limit:10000.00}")
+    private BigDecimal defaultCreditLimit;
+    
+    @Value("${payment.limits.cache-size:100000}")
+    private long cacheSize;
+    
+    // Bounds how long writes made by other instances go unseen
+    @Value("${payment.limits.cache-expiry:60s}")
+    private Duration cacheExpiry;
+    
+    private long defaultCreditLimitCents;
+    private Cache<Long, AtomicLong> availableCents;
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    void init() {
+        defaultCreditLimitCents = Money.toCents(defaultCreditLimit);
+        availableCents = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheExpiry)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, availableCents, "accountLimits");
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    // The caller must hold the account locks and run in the transaction that writes the entries. An account seen
+    // for the first time is loaded in that transaction, from the primary
+    @Transactional(propagation = Propagation.MANDATORY)
+    public LimitAuthorization authorization(Collection<Long> accountIds) {
+        if (!enabled || accountIds.isEmpty()) {
+            return new LimitAuthorization(null, meterRegistry);
+        }
+        Map<Long, Long> available = new HashMap<>();
+        for (Long accountId : accountIds) {
+            AtomicLong cached = availableCents.getIfPresent(accountId);
+            if (cached == null) {
+                cached = new AtomicLong(load(accountId));
+                availableCents.put(accountId, cached);
+            }
+            available.put(accountId, cached.get());
+        }
+        return new LimitAuthorization(available, meterRegistry);
+    }
+    
+    // Called by LedgerWriter in the writing transaction, whose caller holds the account locks until it has ended
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applied(Map<Long, Long> availableDeltas) {
+        if (!enabled) {
+            return;
+        }
+        availableDeltas.forEach((accountId, deltaCents) -> {
+            AtomicLong cached = availableCents.getIfPresent(accountId);
+            if (cached != null) {
+                cached.addAndGet(deltaCents);
+            }
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    availableCents.invalidateAll(availableDeltas.keySet());
+                }
+            }
+        });
+    }
+    
+    // For changes made outside LedgerWriter, e.g. a balance rebuild; the caller must hold the account lock
+    public void invalidate(Long accountId) {
+        availableCents.invalidate(accountId);
+    }
+    
+    // Read-only view: a cached entry is used when present, but a miss does not populate the cache without the lock
+    @Transactional(readOnly = true)
+    public Optional<AccountLimitResponse> getLimit(Long accountId) {
+        if (!accountIdCache.exists(accountId)) {
+            return Optional.empty();
+        }
+        AtomicLong cached = availableCents.getIfPresent(accountId);
+        long available = cached != null ? cached.get() : load(accountId);
+        return Optional.of(toResponse(accountId, creditLimitCents(accountId), available));
+    }
+    
+    public Optional<AccountLimitResponse> setLimit(Long accountId, BigDecimal creditLimit) {
+        if (!accountIdCache.exists(accountId)) {
+            return Optional.empty();
+        }
+        long creditLimitCents = Money.toCents(creditLimit);
+        if (creditLimitCents < 0) {
+            throw new IllegalArgumentException("Credit limit must not be negative");
+        }
+        // Same lock as the writers, so no debit is authorized against the old limit once this has committed
+        ReentrantLock lock = accountLocks.lock(accountId);
+        try {
+            AccountLimitResponse response = transactionTemplate.execute(status -> {
+                AccountLimit limit = accountLimitRepository.findById(accountId)
+                        .orElseGet(() -> new AccountLimit(accountId, creditLimitCents));
+                limit.setCreditLimitCents(creditLimitCents);
+                limit.setUpdatedAt(LocalDateTime.now());
+                accountLimitRepository.save(limit);
+                return toResponse(accountId, creditLimitCents, load(accountId));
+            });
+            invalidate(accountId);
+            return Optional.of(response);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private long load(Long accountId) {
+        long committedCents = accountBalanceRepository.findCommittedCentsByAccountId(accountId).orElse(0L);
+        return committedCents + creditLimitCents(accountId);
+    }
+    
+    private long creditLimitCents(Long accountId) {
+        return accountLimitRepository.findCreditLimitCentsByAccountId(accountId).orElse(defaultCreditLimitCents);
+    }
+    
+    private AccountLimitResponse toResponse(Long accountId, long creditLimitCents, long availableCents) {
+        return new AccountLimitResponse(accountId, Money.toDecimal(creditLimitCents), Money.toDecimal(Math.max(availableCents, 0)));
+    }
+}
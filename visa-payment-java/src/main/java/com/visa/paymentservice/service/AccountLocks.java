@@ -0,0 +1,100 @@
+package com.visa.paymentservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Serializes balance-affecting writes per account in memory. Accounts hash onto a fixed set of lock stripes,
+// so two accounts occasionally share a stripe, but no per-account state is ever allocated
+@Component
+public class AccountLocks {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${payment.account-locks.stripes:1024}")
+    private int stripes;
+    
+    @Value("${payment.account-locks.timeout:1s}")
+    private Duration timeout;
+    
+    private ReentrantLock[] locks;
+    private Timer waitTimer;
+    
+    @PostConstruct
+    void init() {
+        // Rounded up to a power of two so the stripe is a mask rather than a division
+        int size = Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1;
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        waitTimer = meterRegistry.timer("payment.account.lock.wait");
+    }
+    
+    // The caller must pass the result to unlock in a finally block
+    public ReentrantLock lock(Long accountId) {
+        ReentrantLock lock = locks[stripe(accountId)];
+        acquire(lock);
+        return lock;
+    }
+    
+    // Stripes are taken in ascending order, so two batches can never wait on each other
+    public List<ReentrantLock> lockAll(Collection<Long> accountIds) {
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (Long accountId : accountIds) {
+            stripeIndexes.add(stripe(accountId));
+        }
+        List<ReentrantLock> held = new ArrayList<>(stripeIndexes.size());
+        try {
+            for (int stripe : stripeIndexes) {
+                acquire(locks[stripe]);
+                held.add(locks[stripe]);
+            }
+        } catch (RuntimeException e) {
+            unlock(held);
+            throw e;
+        }
+        return held;
+    }
+    
+    public void unlock(List<ReentrantLock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+    
+    private void acquire(ReentrantLock lock) {
+        if (lock.tryLock()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (!lock.tryLock(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("Timed out waiting for the account lock");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for the account lock", e);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private int stripe(Long accountId) {
+        int hash = Long.hashCode(accountId);
+        return (hash ^ (hash >>> 16)) & (locks.length - 1);
+    }
+}
@@ -3,8 +3,13 @@ package com.visa.paymentservice.service;
 import com.visa.paymentservice.dto.AccountRequest;
 import com.visa.paymentservice.dto.AccountResponse;
 import com.visa.paymentservice.model.Account;
+import com.visa.paymentservice.model.AccountBalance;
+import com.visa.paymentservice.repository.AccountBalanceRepository;
 import com.visa.paymentservice.repository.AccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,16 +22,37 @@ public class AccountService {
     @Autowired
     private AccountRepository accountRepository;
     
+    @Autowired
+    private AccountBalanceRepository accountBalanceRepository;
+    
+    @Autowired
+    private AccountIdCache accountIdCache;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
     public AccountResponse createAccount(AccountRequest request) {
-        // Check if account with this document number already exists
-        if (accountRepository.existsByDocumentNumber(request.getDocumentNumber())) {
-            throw new IllegalArgumentException("Account with document number " + request.getDocumentNumber() + " already exists");
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            // The unique index on document_number rejects duplicates, so no lookup is needed before the insert
+            Account savedAccount;
+            try {
+                savedAccount = accountRepository.save(new Account(request.getDocumentNumber()));
+            } catch (DataIntegrityViolationException e) {
+                outcome = "rejected";
+                throw new IllegalArgumentException("Account with document number " + request.getDocumentNumber() + " already exists", e);
+            }
+            // Created with the account, so every write updates an existing row and holds its lock; that orders the
+            // first writes of the account on every instance
+            accountBalanceRepository.save(new AccountBalance(savedAccount.getAccountId(), 0));
+            accountIdCache.add(savedAccount.getAccountId());
+            outcome = "created";
+            
+            return new AccountResponse(savedAccount.getAccountId(), savedAccount.getDocumentNumber());
+        } finally {
+            sample.stop(meterRegistry.timer("payment.account.create", "outcome", outcome));
         }
-        
-        Account account = new Account(request.getDocumentNumber());
-        Account savedAccount = accountRepository.save(account);
-        
-        return new AccountResponse(savedAccount.getAccountId(), savedAccount.getDocumentNumber());
     }
     
     @Transactional(readOnly = true)
@@ -35,6 +61,12 @@ public class AccountService {
                 .map(account -> new AccountResponse(account.getAccountId(), account.getDocumentNumber()));
     }
     
+    @Transactional(readOnly = true)
+    public Optional<AccountResponse> findByDocumentNumber(String documentNumber) {
+        return accountRepository.findByDocumentNumber(Account.toDocumentKey(documentNumber))
+                .map(account -> new AccountResponse(account.getAccountId(), account.getDocumentNumber()));
+    }
+    
     @Transactional(readOnly = true)
     public Optional<Account> findAccountById(Long accountId) {
         return accountRepository.findById(accountId);
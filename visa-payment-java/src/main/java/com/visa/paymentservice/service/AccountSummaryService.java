@@ -0,0 +1,77 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.dto.AccountSummaryResponse;
+import com.visa.paymentservice.dto.TransactionResponse;
+import com.visa.paymentservice.model.DailyRollup;
+import com.visa.paymentservice.repository.DailyRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Per-day totals by operation type, served from daily_rollups rather than the transactions themselves
+@Service
+public class AccountSummaryService {
+    
+    @Autowired
+    private DailyRollupRepository dailyRollupRepository;
+    
+    @Autowired
+    private AccountIdCache accountIdCache;
+    
+    // Length of the range when from is not given
+    @Value("${payment.summary.default-days:30}")
+    private int defaultDays;
+    
+    @Value("${payment.summary.max-days:366}")
+    private int maxDays;
+    
+    // Must run in the transaction that persists the ledger rows, after BalanceService.applyAll; entries and responses
+    // are index-aligned. The balance update holds the account's balance row lock until commit, so the update-or-insert
+    // cannot race with another writer of the same row, whether or not limits are enabled and on any instance
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(List<LedgerEntry> entries, List<TransactionResponse> responses) {
+        // One statement per account, day and operation type rather than per transaction
+        Map<DailyRollup.Key, long[]> deltas = new HashMap<>();
+        for (int i = 0; i < responses.size(); i++) {
+            TransactionResponse response = responses.get(i);
+            DailyRollup.Key key = new DailyRollup.Key(response.getAccountId(), response.getEventDate().toLocalDate(),
+                    response.getOperationTypeId());
+            long[] delta = deltas.computeIfAbsent(key, k -> new long[2]);
+            delta[0]++;
+            delta[1] += entries.get(i).getAmountCents();
+        }
+        deltas.forEach((key, delta) -> {
+            if (dailyRollupRepository.addToRollup(key.getAccountId(), key.getRollupDate(), key.getOperationTypeId(),
+                    delta[0], delta[1]) == 0) {
+                dailyRollupRepository.save(new DailyRollup(key, delta[0], delta[1]));
+            }
+        });
+    }
+    
+    // from is inclusive and to exclusive. to defaults to tomorrow, so today is included, and from to
+    // payment.summary.default-days before to
+    @Transactional(readOnly = true)
+    public Optional<AccountSummaryResponse> getSummary(Long accountId, LocalDate from, LocalDate to) {
+        if (!accountIdCache.exists(accountId)) {
+            return Optional.empty();
+        }
+        to = to != null ? to : LocalDate.now().plusDays(1);
+        from = from != null ? from : to.minusDays(defaultDays);
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > maxDays) {
+            throw new IllegalArgumentException("Summary range must be at most " + maxDays + " days");
+        }
+        return Optional.of(new AccountSummaryResponse(accountId, from, to, dailyRollupRepository.findDays(accountId, from, to)));
+    }
+}
@@ -0,0 +1,124 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.dto.BalanceResponse;
+import com.visa.paymentservice.model.AccountBalance;
+import com.visa.paymentservice.model.Money;
+import com.visa.paymentservice.repository.AccountBalanceRepository;
+import com.visa.paymentservice.repository.AccountRepository;
+import com.visa.paymentservice.repository.InstallmentScheduleRepository;
+import com.visa.paymentservice.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@Transactional
+public class BalanceService {
+    
+    @Autowired
+    private AccountBalanceRepository accountBalanceRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private TransactionArchive transactionArchive;
+    
+    @Autowired
+    private InstallmentScheduleRepository installmentScheduleRepository;
+    
+    @Autowired
+    private AccountLocks accountLocks;
+    
+    @Autowired
+    private AccountLimitService accountLimitService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<BalanceResponse> getBalance(Long accountId) {
+        Optional<Long> balanceCents = accountBalanceRepository.findBalanceCentsByAccountId(accountId);
+        if (balanceCents.isPresent()) {
+            return Optional.of(new BalanceResponse(accountId, Money.toDecimal(balanceCents.get())));
+        }
+        // Accounts without a projection row have never been moved
+        if (accountRepository.existsById(accountId)) {
+            return Optional.of(new BalanceResponse(accountId, Money.toDecimal(0)));
+        }
+        return Optional.empty();
+    }
+    
+    // Must run in the same transaction that persists the ledger rows. The row is created with the account; the
+    // insert only covers accounts written to the database by other means
+    public void apply(Long accountId, long deltaCents, long outstandingDeltaCents) {
+        if (accountBalanceRepository.addToBalance(accountId, deltaCents, outstandingDeltaCents, LocalDateTime.now()) == 0) {
+            accountBalanceRepository.save(new AccountBalance(accountId, deltaCents, outstandingDeltaCents));
+        }
+    }
+    
+    // Per account: balance delta, then outstanding installments delta
+    public void applyAll(Map<Long, long[]> deltas) {
+        deltas.forEach((accountId, delta) -> apply(accountId, delta[0], delta[1]));
+    }
+    
+    // Reserves count outbox sequence numbers for the account and returns the first. Must run after apply in the same
+    // transaction: the balance row then exists and stays locked until commit, so numbers follow commit order
+    public long reserveEventSequences(Long accountId, int count) {
+        accountBalanceRepository.addToEventSequence(accountId, count);
+        return accountBalanceRepository.findEventSequence(accountId) - count + 1;
+    }
+    
+    // Writers are held off for the whole rebuild, so none can commit between the sum and the save: those of this
+    // instance by the account lock, taken before the database transaction, and those of other instances by the row
+    // lock their balance update takes
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<BalanceResponse> rebuild(Long accountId) {
+        ReentrantLock lock = accountLocks.lock(accountId);
+        try {
+            Optional<BalanceResponse> rebuilt = transactionTemplate.execute(status -> {
+                if (!accountRepository.existsById(accountId)) {
+                    return Optional.empty();
+                }
+                accountBalanceRepository.lockBalance(accountId);
+                
+                // Recompute from the ledger and the schedules, which stay the source of truth: archived buckets plus the table
+                int archivedThrough = transactionArchive.archivedThrough();
+                long totalCents = transactionArchive.sumCents(accountId, archivedThrough)
+                        + transactionRepository.sumAmountCentsByAccountId(accountId, archivedThrough);
+                AccountBalance balance = accountBalanceRepository.findById(accountId)
+                        .orElseGet(() -> new AccountBalance(accountId, 0));
+                balance.setBalanceCents(totalCents);
+                balance.setOutstandingInstallmentCents(installmentScheduleRepository.sumOutstandingCentsByAccountId(accountId));
+                balance.setUpdatedAt(LocalDateTime.now());
+                accountBalanceRepository.save(balance);
+                
+                return Optional.of(new BalanceResponse(accountId, Money.toDecimal(totalCents)));
+            });
+            // Still under the account lock, so no authorization uses the old figures in between
+            accountLimitService.invalidate(accountId);
+            return rebuilt;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.visa.paymentservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.visa.paymentservice.dto.TransactionEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Appends events as newline-delimited JSON; a batch is forced to disk before the relay deletes it from the outbox
+@Component
+@ConditionalOnProperty(name = "payment.outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${payment.outbox.file.path:./data/transaction-events.ndjson}")
+    private Path path;
+    
+    private FileChannel channel;
+    
+    @PostConstruct
+    void open() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+    
+    @Override
+    public void publish(List<TransactionEvent> events) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(events.size() * 160);
+        for (TransactionEvent event : events) {
+            objectMapper.writeValue(buffer, event);
+            buffer.write('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+    }
+    
+    @PreDestroy
+    void close() throws IOException {
+        channel.close();
+    }
+}
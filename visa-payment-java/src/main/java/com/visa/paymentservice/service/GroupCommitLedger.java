@@ -0,0 +1,225 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.dto.TransactionResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Opt-in write-behind mode: entries from many requests are committed together, and each request
+// is acknowledged only once the commit holding its entry has succeeded
+@Component
+public class GroupCommitLedger {
+    
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitLedger.class);
+    
+    @Autowired
+    private LedgerWriter ledgerWriter;
+    
+    @Autowired
+    private AccountLimitService accountLimitService;
+    
+    @Autowired
+    private AccountLocks accountLocks;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${payment.ledger.write-behind.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${payment.ledger.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${payment.ledger.write-behind.max-batch-size:500}")
+    private int maxBatchSize;
+    
+    @Value("${payment.ledger.write-behind.max-wait:5ms}")
+    private Duration maxWait;
+    
+    @Value("${payment.ledger.write-behind.offer-timeout:100ms}")
+    private Duration offerTimeout;
+    
+    private BlockingQueue<PendingEntry> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread flusher;
+    private volatile boolean running;
+    
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        meterRegistry.gaugeCollectionSize("payment.ledger.queue.size", List.of(), queue);
+        flusher = new Thread(this::run, "ledger-group-commit");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        // The flusher drains whatever is still queued before it exits
+        running = false;
+        flusher.join();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public TransactionResponse submit(LedgerEntry entry) {
+        PendingEntry pending = new PendingEntry(entry);
+        try {
+            if (!running || !queue.offer(pending, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("Ledger queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while queueing ledger entry", e);
+        }
+        
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private void run() {
+        List<PendingEntry> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEntry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                // Keep collecting until the group is full or the window opened by the first entry closes
+                long deadline = System.nanoTime() + maxWait.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingEntry next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void commit(List<PendingEntry> batch) {
+        meterRegistry.summary("payment.ledger.group.size").record(batch.size());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            List<PendingEntry> written = writeLocked(batch);
+            sample.stop(meterRegistry.timer("payment.ledger.group.commit"));
+            // Declined entries are completed by write; the others only once their commit has succeeded
+            for (PendingEntry pending : written) {
+                pending.result.complete(pending.response);
+            }
+        } catch (RuntimeException e) {
+            // One bad entry must not fail the rest of the group, so fall back to committing one by one
+            log.warn("Group commit of {} entries failed, retrying individually", batch.size(), e);
+            for (PendingEntry pending : batch) {
+                if (pending.result.isDone()) {
+                    continue;
+                }
+                try {
+                    writeLocked(List.of(pending));
+                    pending.result.complete(pending.response);
+                } catch (RuntimeException entryFailure) {
+                    pending.result.completeExceptionally(entryFailure);
+                }
+            }
+        }
+    }
+    
+    // The flusher takes the account locks for the commit only; the request threads hold none while they wait
+    private List<PendingEntry> writeLocked(List<PendingEntry> batch) {
+        Set<Long> accountIds = new HashSet<>();
+        for (PendingEntry pending : batch) {
+            accountIds.add(pending.entry.getAccountId());
+        }
+        List<ReentrantLock> held = accountLocks.lockAll(accountIds);
+        try {
+            return transactionTemplate.execute(status -> write(batch, accountIds));
+        } finally {
+            accountLocks.unlock(held);
+        }
+    }
+    
+    // Authorizes the entries under the account locks and writes the ones that pass, in one transaction
+    private List<PendingEntry> write(List<PendingEntry> batch, Set<Long> accountIds) {
+        LimitAuthorization limits = accountLimitService.authorization(accountIds);
+        
+        List<PendingEntry> accepted = new ArrayList<>(batch.size());
+        List<LedgerEntry> entries = new ArrayList<>(batch.size());
+        for (PendingEntry pending : batch) {
+            try {
+                limits.authorize(pending.entry.getAccountId(), pending.entry.getTotalCents());
+            } catch (TransactionDeclinedException e) {
+                // Nothing of a declined entry is written, so it can fail now whatever happens to the group
+                pending.result.completeExceptionally(e);
+                continue;
+            }
+            accepted.add(pending);
+            entries.add(pending.entry);
+        }
+        List<TransactionResponse> responses = ledgerWriter.write(entries);
+        for (int i = 0; i < accepted.size(); i++) {
+            accepted.get(i).response = responses.get(i);
+        }
+        return accepted;
+    }
+    
+    private static class PendingEntry {
+        
+        private final LedgerEntry entry;
+        private final CompletableFuture<TransactionResponse> result = new CompletableFuture<>();
+        // Set in the transaction, published to the caller through result only after the commit
+        private TransactionResponse response;
+        
+        PendingEntry(LedgerEntry entry) {
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.visa.paymentservice.service;
+
+// The Idempotency-Key was first used for a request with a different body
+public class IdempotencyKeyReusedException extends RuntimeException {
+    
+    private final String idempotencyKey;
+    
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super("Idempotency key " + idempotencyKey + " was already used for a different request");
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
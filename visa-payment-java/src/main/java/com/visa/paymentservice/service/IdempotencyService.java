@@ -0,0 +1,131 @@
+package com.visa.paymentservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.visa.paymentservice.dto.TransactionResponse;
+import com.visa.paymentservice.model.IdempotencyRecord;
+import com.visa.paymentservice.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+@Service
+public class IdempotencyService {
+    
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${payment.idempotency.ttl:24h}")
+    private Duration ttl;
+    
+    @Value("${payment.idempotency.maximum-size:100000}")
+    private long maximumSize;
+    
+    // Holds in-flight requests as well as completed ones, so a retry racing the original waits for it
+    private Cache<String, Pending> responses;
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        responses = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotencyKeys");
+    }
+    
+    // requestHash identifies the request body; a key reused with a different body is rejected, not replayed
+    public TransactionResponse execute(String idempotencyKey, String requestHash, Supplier<TransactionResponse> action) {
+        Pending pending = new Pending(requestHash);
+        Pending existing = responses.asMap().putIfAbsent(idempotencyKey, pending);
+        if (existing != null) {
+            if (!existing.requestHash.equals(requestHash)) {
+                throw new IdempotencyKeyReusedException(idempotencyKey);
+            }
+            return await(existing.response);
+        }
+        
+        try {
+            // The table covers keys handled before a restart or by another instance
+            TransactionResponse response = findStored(idempotencyKey, requestHash).orElseGet(() -> run(idempotencyKey, requestHash, action));
+            pending.response.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            // Failed attempts are not remembered, so the client can retry them
+            responses.asMap().remove(idempotencyKey, pending);
+            pending.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${payment.idempotency.purge-interval:PT10M}")
+    @Transactional
+    public void purgeExpired() {
+        idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+    }
+    
+    private TransactionResponse run(String idempotencyKey, String requestHash, Supplier<TransactionResponse> action) {
+        try {
+            return action.get();
+        } catch (DataIntegrityViolationException e) {
+            // Another instance committed the same key first
+            return findStored(idempotencyKey, requestHash).orElseThrow(() -> e);
+        }
+    }
+    
+    private Optional<TransactionResponse> findStored(String idempotencyKey, String requestHash) {
+        // A read-write transaction, so the lookup reaches the primary: a key committed a moment ago, possibly by
+        // another instance, may not have reached the replica yet
+        Optional<IdempotencyRecord> stored = transactionTemplate.execute(status -> idempotencyRecordRepository.findById(idempotencyKey));
+        // Keys stored before request hashes were recorded have none and are replayed as before
+        if (stored.isPresent() && stored.get().getRequestHash() != null && !stored.get().getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+        return stored.map(record -> new TransactionResponse(record.getTransactionId(), record.getAccountId(),
+                record.getOperationTypeId(), record.getAmountCents(), record.getEventDate()));
+    }
+    
+    private TransactionResponse await(CompletableFuture<TransactionResponse> existing) {
+        try {
+            return existing.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private static class Pending {
+        
+        private final String requestHash;
+        private final CompletableFuture<TransactionResponse> response = new CompletableFuture<>();
+        
+        Pending(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+}
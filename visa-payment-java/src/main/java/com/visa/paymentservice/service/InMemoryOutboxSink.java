@@ -0,0 +1,45 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.dto.TransactionEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// In-process stand-in for a broker: consumers in the same JVM take events from a bounded queue
+@Component
+@ConditionalOnProperty(name = "payment.outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOutboxSink implements OutboxSink {
+    
+    private final BlockingQueue<TransactionEvent> queue;
+    
+    public InMemoryOutboxSink(@Value("${payment.outbox.memory.capacity:100000}") int capacity) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+    
+    // The relay is the only producer, so a batch that fits now still fits when it is added
+    @Override
+    public void publish(List<TransactionEvent> events) {
+        if (queue.remainingCapacity() < events.size()) {
+            throw new IllegalStateException("Outbox queue is full");
+        }
+        queue.addAll(events);
+    }
+    
+    public TransactionEvent poll(Duration timeout) throws InterruptedException {
+        return queue.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+    
+    public int drainTo(List<TransactionEvent> events, int maxEvents) {
+        return queue.drainTo(events, maxEvents);
+    }
+    
+    public int size() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,133 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.model.InstallmentSchedule;
+import com.visa.paymentservice.model.OperationType;
+import com.visa.paymentservice.repository.InstallmentScheduleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Posts the installments that have fallen due, one page of schedules per database transaction. Only schedules
+// due by today are read, through the next_due_date index. Each schedule is claimed with a conditional update,
+// so runs on several instances never post the same installment twice
+@Component
+@ConditionalOnProperty(name = "payment.installments.processor-enabled", havingValue = "true", matchIfMissing = true)
+public class InstallmentProcessor {
+    
+    private static final Logger log = LoggerFactory.getLogger(InstallmentProcessor.class);
+    
+    @Autowired
+    private InstallmentScheduleRepository installmentScheduleRepository;
+    
+    @Autowired
+    private OperationTypeRegistry operationTypeRegistry;
+    
+    @Autowired
+    private LedgerWriter ledgerWriter;
+    
+    @Autowired
+    private AccountLocks accountLocks;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${payment.installments.batch-size:500}")
+    private int batchSize;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Scheduled(cron = "${payment.installments.cron:0 15 0 * * *}")
+    public void postDueInstallments() {
+        LocalDate today = LocalDate.now();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long total = 0;
+        // A schedule that missed several runs is still due after one posting, so keep going until nothing is left.
+        // Every schedule of a page is advanced or deferred, so no page is read twice
+        int handled;
+        do {
+            handled = postBatch(today);
+            total += handled;
+        } while (handled > 0);
+        sample.stop(meterRegistry.timer("payment.installments.run"));
+        log.info("Handled {} due installment schedules", total);
+    }
+    
+    // Returns the number of schedules posted or deferred
+    int postBatch(LocalDate today) {
+        List<InstallmentSchedule> due = installmentScheduleRepository.findDue(today, PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        List<Long> scheduleIds = new ArrayList<>(due.size());
+        Set<Long> accountIds = new HashSet<>();
+        for (InstallmentSchedule schedule : due) {
+            scheduleIds.add(schedule.getScheduleId());
+            accountIds.add(schedule.getAccountId());
+        }
+        
+        // Same lock order as a transaction batch. Posting moves cents from scheduled to booked, which leaves the
+        // available limit unchanged, so they are not authorized
+        List<ReentrantLock> held = accountLocks.lockAll(accountIds);
+        try {
+            int[] deferred = new int[1];
+            Integer posted = transactionTemplate.execute(status -> {
+                // Re-read inside the transaction, so a schedule posted since the scan is not posted twice
+                List<InstallmentSchedule> schedules = installmentScheduleRepository.findDueByIds(scheduleIds, today);
+                List<LedgerEntry> entries = new ArrayList<>(schedules.size());
+                for (InstallmentSchedule schedule : schedules) {
+                    OperationType operationType = operationTypeRegistry.find(schedule.getOperationTypeId());
+                    if (operationType == null) {
+                        // Retried tomorrow, so it is posted once the operation type is back. Left due today, it would
+                        // come back at the head of every page and hold up the schedules behind it
+                        if (installmentScheduleRepository.defer(schedule.getScheduleId(), schedule.getInstallmentsPosted(),
+                                today.plusDays(1)) > 0) {
+                            log.warn("Deferring installment schedule {}: operation type {} not found",
+                                    schedule.getScheduleId(), schedule.getOperationTypeId());
+                            deferred[0]++;
+                        }
+                        continue;
+                    }
+                    // The row stays locked until commit; a run that claimed it first leaves nothing to update
+                    int postedAfter = schedule.getInstallmentsPosted() + 1;
+                    if (installmentScheduleRepository.advance(schedule.getScheduleId(), schedule.getInstallmentsPosted(),
+                            postedAfter, schedule.dueDateAfter(postedAfter)) == 0) {
+                        continue;
+                    }
+                    entries.add(LedgerEntry.scheduledInstallment(schedule.getAccountId(), operationType, schedule.getInstallmentCents()));
+                }
+                ledgerWriter.write(entries);
+                return entries.size();
+            });
+            meterRegistry.counter("payment.installments.posted").increment(posted);
+            meterRegistry.counter("payment.installments.deferred").increment(deferred[0]);
+            return posted + deferred[0];
+        } finally {
+            accountLocks.unlock(held);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.model.OperationType;
+
+// A validated transaction waiting to be written, with the sign already applied to the amount in cents.
+// For a purchase in installments, amountCents is the first installment and the rest are scheduled; a later
+// installment is an entry of its own, posted from the schedule
+public class LedgerEntry {
+    
+    private final Long accountId;
+    private final OperationType operationType;
+    private final long amountCents;
+    private final String idempotencyKey;
+    private final String requestHash;
+    private final int installmentCount;
+    private final long installmentCents;
+    private final boolean scheduledInstallment;
+    
+    public LedgerEntry(Long accountId, OperationType operationType, long amountCents) {
+        this(accountId, operationType, amountCents, null, null, 1, 0);
+    }
+    
+    public LedgerEntry(Long accountId, OperationType operationType, long amountCents, String idempotencyKey,
+                       String requestHash, int installmentCount, long installmentCents) {
+        this(accountId, operationType, amountCents, idempotencyKey, requestHash, installmentCount, installmentCents, false);
+    }
+    
+    private LedgerEntry(Long accountId, OperationType operationType, long amountCents, String idempotencyKey,
+                        String requestHash, int installmentCount, long installmentCents, boolean scheduledInstallment) {
+        this.accountId = accountId;
+        this.operationType = operationType;
+        this.amountCents = amountCents;
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.installmentCount = installmentCount;
+        this.installmentCents = installmentCents;
+        this.scheduledInstallment = scheduledInstallment;
+    }
+    
+    // A due installment of an earlier purchase, whose amount already counts as outstanding
+    public static LedgerEntry scheduledInstallment(Long accountId, OperationType operationType, long installmentCents) {
+        return new LedgerEntry(accountId, operationType, installmentCents, null, null, 1, 0, true);
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public OperationType getOperationType() {
+        return operationType;
+    }
+    
+    public long getAmountCents() {
+        return amountCents;
+    }
+    
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
+    public String getRequestHash() {
+        return requestHash;
+    }
+    
+    public int getInstallmentCount() {
+        return installmentCount;
+    }
+    
+    public long getInstallmentCents() {
+        return installmentCents;
+    }
+    
+    public boolean hasInstallments() {
+        return installmentCount > 1;
+    }
+    
+    // What the entry commits the account to: the amount posted now plus every installment still to come
+    public long getTotalCents() {
+        return amountCents + installmentCents * (installmentCount - 1);
+    }
+    
+    // Change to the outstanding installments: a purchase schedules all but its first, a posting moves one out
+    public long getOutstandingDeltaCents() {
+        return scheduledInstallment ? -amountCents : installmentCents * (installmentCount - 1);
+    }
+    
+    // Change to what the account has available: nothing for a posting, which only moves cents from outstanding
+    // to the balance
+    public long getAvailableDeltaCents() {
+        return amountCents + getOutstandingDeltaCents();
+    }
+}
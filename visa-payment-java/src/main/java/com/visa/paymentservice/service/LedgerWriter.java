@@ -0,0 +1,120 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.dto.TransactionResponse;
+import com.visa.paymentservice.model.Account;
+import com.visa.paymentservice.model.IdempotencyRecord;
+import com.visa.paymentservice.model.InstallmentSchedule;
+import com.visa.paymentservice.model.OutboxEvent;
+import com.visa.paymentservice.model.Transaction;
+import com.visa.paymentservice.repository.AccountRepository;
+import com.visa.paymentservice.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Persists validated entries together with everything derived from them, inside the caller's transaction
+@Component
+public class LedgerWriter {
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private BalanceService balanceService;
+    
+    @Autowired
+    private AccountSummaryService accountSummaryService;
+    
+    @Autowired
+    private AccountLimitService accountLimitService;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${payment.account-cache.use-reference:true}")
+    private boolean useAccountReference;
+    
+    @Value("${payment.outbox.enabled:false}")
+    private boolean outboxEnabled;
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<TransactionResponse> write(List<LedgerEntry> entries) {
+        List<TransactionResponse> responses = new ArrayList<>(entries.size());
+        // Account id order, so writers of several accounts take the balance row locks in the same order
+        Map<Long, long[]> balanceDeltas = new TreeMap<>();
+        Map<Long, Long> availableDeltas = new HashMap<>();
+        
+        for (LedgerEntry entry : entries) {
+            Transaction transaction = transactionRepository.save(
+                    new Transaction(accountFor(entry.getAccountId()), entry.getOperationType(), entry.getAmountCents()));
+            
+            // Built from the entry ids so the account reference is never initialized
+            TransactionResponse response = new TransactionResponse(transaction.getTransactionId(), entry.getAccountId(),
+                    entry.getOperationType().getOperationTypeId(), transaction.getAmountCents(), transaction.getEventDate());
+            responses.add(response);
+            long[] delta = balanceDeltas.computeIfAbsent(entry.getAccountId(), accountId -> new long[2]);
+            delta[0] += entry.getAmountCents();
+            delta[1] += entry.getOutstandingDeltaCents();
+            availableDeltas.merge(entry.getAccountId(), entry.getAvailableDeltaCents(), Long::sum);
+            
+            // The remaining installments are posted later by InstallmentProcessor
+            if (entry.hasInstallments()) {
+                entityManager.persist(new InstallmentSchedule(response.getTransactionId(), entry.getAccountId(),
+                        response.getOperationTypeId(), entry.getInstallmentCents(), entry.getInstallmentCount(),
+                        response.getEventDate().toLocalDate()));
+            }
+            
+            // Committed together with the ledger row, so a key is recorded if and only if its transaction is
+            if (entry.getIdempotencyKey() != null) {
+                entityManager.persist(new IdempotencyRecord(entry.getIdempotencyKey(), response.getTransactionId(),
+                        response.getAccountId(), response.getOperationTypeId(), transaction.getAmountCents(), response.getEventDate(),
+                        entry.getRequestHash()));
+            }
+        }
+        
+        // One balance update per account rather than per transaction
+        balanceService.applyAll(balanceDeltas);
+        accountLimitService.applied(availableDeltas);
+        accountSummaryService.record(entries, responses);
+        
+        // Sequence numbers are drawn from the balance rows locked above, so per account they follow commit order
+        if (outboxEnabled) {
+            Map<Long, Integer> eventCounts = new TreeMap<>();
+            for (LedgerEntry entry : entries) {
+                eventCounts.merge(entry.getAccountId(), 1, Integer::sum);
+            }
+            Map<Long, Long> nextSequences = new HashMap<>();
+            eventCounts.forEach((accountId, count) -> nextSequences.put(accountId, balanceService.reserveEventSequences(accountId, count)));
+            for (int i = 0; i < responses.size(); i++) {
+                TransactionResponse response = responses.get(i);
+                long accountSequence = nextSequences.get(response.getAccountId());
+                nextSequences.put(response.getAccountId(), accountSequence + 1);
+                entityManager.persist(new OutboxEvent(accountSequence, response.getTransactionId(), response.getAccountId(),
+                        response.getOperationTypeId(), entries.get(i).getAmountCents(), response.getEventDate()));
+            }
+        }
+        return responses;
+    }
+    
+    private Account accountFor(Long accountId) {
+        if (useAccountReference) {
+            // The account is only a foreign key here, so a known id needs no read at all
+            return accountRepository.getReferenceById(accountId);
+        }
+        return accountRepository.findById(accountId)
+                .orElseThrow(() -> new IllegalArgumentException("Account with ID " + accountId + " not found"));
+    }
+}
@@ -0,0 +1,42 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.model.DeclineReason;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// What the accounts authorized by AccountLimitService.authorization still have available, for the rest of that transaction.
+// Every authorized entry is taken off right away, so later entries of the same write see it
+public class LimitAuthorization {
+    
+    // Null when limits are disabled
+    private final Map<Long, Long> available;
+    private final MeterRegistry meterRegistry;
+    
+    LimitAuthorization(Map<Long, Long> available, MeterRegistry meterRegistry) {
+        this.available = available;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    // amountCents is signed; a purchase in installments passes its whole amount, which comes off the limit up front
+    public void authorize(Long accountId, long amountCents) {
+        if (available == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Long availableCents = available.get(accountId);
+            if (availableCents == null) {
+                throw new IllegalStateException("Account " + accountId + " was not locked for authorization");
+            }
+            if (!TransactionRules.authorizes(availableCents, amountCents)) {
+                meterRegistry.counter("payment.transaction.declined", "reason", DeclineReason.INSUFFICIENT_LIMIT.name()).increment();
+                throw new TransactionDeclinedException(accountId, DeclineReason.INSUFFICIENT_LIMIT, Math.max(availableCents, 0));
+            }
+            available.put(accountId, availableCents + amountCents);
+        } finally {
+            meterRegistry.timer("payment.transaction.authorization").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.visa.paymentservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.visa.paymentservice.model.OperationType;
+import com.visa.paymentservice.repository.OperationTypeRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+public class OperationTypeRegistry {
+    
+    @Autowired
+    private OperationTypeRepository operationTypeRepository;
+    
+    @Value("${payment.operation-types.miss-ttl:PT30S}")
+    private Duration missTtl;
+    
+    @Value("${payment.operation-types.miss-cache-size:10000}")
+    private long missCacheSize;
+    
+    // Immutable snapshot, replaced as a whole so readers never need to lock
+    private volatile Map<Long, OperationType> operationTypes = Map.of();
+    
+    // Ids recently found missing, so requests repeating an unknown id do not each reach the database
+    private Cache<Long, Boolean> missingIds;
+    
+    @PostConstruct
+    void init() {
+        missingIds = Caffeine.newBuilder()
+                .maximumSize(missCacheSize)
+                .expireAfterWrite(missTtl)
+                .build();
+    }
+    
+    // Runs after the CommandLineRunners, so the seeded operation types are already there. The schedule picks up
+    // changes to types already loaded
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${payment.operation-types.refresh-interval:PT5M}",
+            initialDelayString = "${payment.operation-types.refresh-interval:PT5M}")
+    public synchronized void refresh() {
+        Map<Long, OperationType> loaded = new HashMap<>();
+        for (OperationType operationType : operationTypeRepository.findAll()) {
+            loaded.put(operationType.getOperationTypeId(), operationType);
+        }
+        operationTypes = Map.copyOf(loaded);
+    }
+    
+    public OperationType find(Long operationTypeId) {
+        OperationType operationType = operationTypes.get(operationTypeId);
+        if (operationType != null || missingIds.getIfPresent(operationTypeId) != null) {
+            return operationType;
+        }
+        // A type may have been added since the last load; only its own row is read
+        Optional<OperationType> loaded = operationTypeRepository.findById(operationTypeId);
+        if (loaded.isEmpty()) {
+            missingIds.put(operationTypeId, Boolean.TRUE);
+            return null;
+        }
+        add(loaded.get());
+        return loaded.get();
+    }
+    
+    public Map<Long, OperationType> getAll() {
+        return operationTypes;
+    }
+    
+    private synchronized void add(OperationType operationType) {
+        Map<Long, OperationType> updated = new HashMap<>(operationTypes);
+        updated.put(operationType.getOperationTypeId(), operationType);
+        operationTypes = Map.copyOf(updated);
+    }
+}
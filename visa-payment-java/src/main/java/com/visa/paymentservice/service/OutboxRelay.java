@@ -0,0 +1,80 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.dto.TransactionEvent;
+import com.visa.paymentservice.model.OutboxEvent;
+import com.visa.paymentservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Pushes outbox rows to the sink in account sequence order, then deletes them. Runs on a single scheduler thread,
+// and on one instance only: two relays would publish the same rows, each in its own order
+@Component
+@ConditionalOnProperty(name = "payment.outbox.relay.enabled", havingValue = "true")
+public class OutboxRelay {
+    
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private OutboxSink outboxSink;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${payment.outbox.batch-size:500}")
+    private int batchSize;
+    
+    @Scheduled(fixedDelayString = "${payment.outbox.poll-interval:PT0.2S}")
+    public void relay() {
+        // Keep draining while full batches come back, so a backlog does not wait for the next tick
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+    
+    int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findNext(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        List<TransactionEvent> events = new ArrayList<>(batch.size());
+        List<Long> eventIds = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            events.add(new TransactionEvent(event.getEventId(), event.getAccountSequence(), event.getTransactionId(),
+                    event.getAccountId(), event.getOperationTypeId(), event.getAmountCents(), event.getEventDate()));
+            eventIds.add(event.getEventId());
+        }
+        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            outboxSink.publish(events);
+        } catch (Exception e) {
+            // The rows stay in the outbox and the whole batch is published again on the next tick
+            log.warn("Publishing {} outbox events failed, will retry", events.size(), e);
+            meterRegistry.counter("payment.outbox.publish.failures").increment();
+            return 0;
+        } finally {
+            sample.stop(meterRegistry.timer("payment.outbox.publish"));
+        }
+        
+        // Deleted only after the sink accepted them, so a crash in between republishes rather than loses events
+        outboxEventRepository.deleteAllByIdInBatch(eventIds);
+        meterRegistry.counter("payment.outbox.published").increment(events.size());
+        return events.size();
+    }
+}
@@ -0,0 +1,11 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.dto.TransactionEvent;
+
+import java.util.List;
+
+// Receives relayed events in outbox order. Delivery is at least once: a batch that throws is retried in full
+public interface OutboxSink {
+    
+    void publish(List<TransactionEvent> events) throws Exception;
+}
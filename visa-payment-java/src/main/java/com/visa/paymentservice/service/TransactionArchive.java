@@ -0,0 +1,112 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.dto.TransactionResponse;
+import com.visa.paymentservice.model.TransactionBucket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Archived buckets, one memory-mapped file per month. Which buckets are archived, and each account's sum per bucket,
+// are recorded in the database, so every instance agrees on archivedThrough() and a balance rebuild reads no file.
+// Only history reads open the files, so payment.archive.directory must be storage shared by all instances
+@Component
+public class TransactionArchive {
+    
+    private static final String FILE_PREFIX = "transactions-";
+    private static final String FILE_SUFFIX = ".col";
+    
+    private static final String SELECT_ARCHIVED_THROUGH = "select coalesce(max(bucket), 0) from archived_buckets";
+    private static final String SELECT_ARCHIVED = "select bucket from archived_buckets where bucket between ? and ? order by bucket";
+    private static final String SUM_CENTS = "select coalesce(sum(amount_cents), 0) from archived_account_sums " +
+            "where account_id = ? and bucket <= ?";
+    private static final String INSERT_BUCKET = "insert into archived_buckets (bucket, row_count, archived_at) values (?, ?, ?)";
+    private static final String INSERT_ACCOUNT_SUM = "insert into archived_account_sums (account_id, bucket, amount_cents) values (?, ?, ?)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${payment.archive.directory:./data/archive}")
+    private Path directory;
+    
+    @Value("${payment.archive.batch-size:1000}")
+    private int batchSize;
+    
+    // Opened on first read; a file never changes once its bucket is recorded
+    private final Map<Integer, TransactionArchiveFile> files = new ConcurrentHashMap<>();
+    
+    public Path pathFor(int bucket) {
+        return directory.resolve(FILE_PREFIX + bucket + FILE_SUFFIX);
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    // Must run in the transaction that deletes the bucket's rows from the table
+    void record(TransactionArchiveFile file) {
+        jdbcTemplate.update(INSERT_BUCKET, file.getBucket(), file.getRowCount(), LocalDateTime.now());
+        List<Object[]> sums = new ArrayList<>(Math.min(file.getAccountCount(), batchSize));
+        for (int entry = 0; entry < file.getAccountCount(); entry++) {
+            sums.add(new Object[]{file.accountIdAt(entry), file.getBucket(), file.sumCentsAt(entry)});
+            if (sums.size() == batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_ACCOUNT_SUM, sums);
+                sums.clear();
+            }
+        }
+        if (!sums.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ACCOUNT_SUM, sums);
+        }
+        files.put(file.getBucket(), file);
+    }
+    
+    // 0 when nothing has been archived, so every bucket in the table compares greater
+    public int archivedThrough() {
+        return jdbcTemplate.queryForObject(SELECT_ARCHIVED_THROUGH, Integer.class);
+    }
+    
+    // Callers pass the archivedThrough() value they use for the table, so a bucket archived concurrently is counted once
+    public long sumCents(long accountId, int throughBucket) {
+        return jdbcTemplate.queryForObject(SUM_CENTS, Long.class, accountId, throughBucket);
+    }
+    
+    // Only the files of buckets overlapping [from, to) are read
+    public List<TransactionResponse> read(long accountId, LocalDateTime from, LocalDateTime to, TransactionCursor after,
+                                          int limit, int throughBucket) {
+        List<TransactionResponse> transactions = new ArrayList<>();
+        int fromBucket = TransactionBucket.of(from);
+        int toBucket = Math.min(TransactionBucket.of(to), throughBucket);
+        if (after != null) {
+            fromBucket = Math.max(fromBucket, TransactionBucket.of(after.getEventDate()));
+        }
+        if (fromBucket > toBucket) {
+            return transactions;
+        }
+        for (int bucket : jdbcTemplate.queryForList(SELECT_ARCHIVED, Integer.class, fromBucket, toBucket)) {
+            transactions.addAll(file(bucket).read(accountId, from, to, after, limit - transactions.size()));
+            if (transactions.size() == limit) {
+                break;
+            }
+        }
+        return transactions;
+    }
+    
+    private TransactionArchiveFile file(int bucket) {
+        return files.computeIfAbsent(bucket, key -> {
+            try {
+                return TransactionArchiveFile.open(pathFor(key));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Archive file of bucket " + key + " is not readable in " + directory, e);
+            }
+        });
+    }
+}
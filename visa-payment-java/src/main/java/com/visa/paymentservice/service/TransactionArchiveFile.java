@@ -0,0 +1,279 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.dto.TransactionResponse;
+import com.visa.paymentservice.model.TransactionBucket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// One archived bucket. Layout: a 64 byte header, then one fixed-width column per field, then an account index.
+// Rows are sorted by (account_id, event_date, transaction_id), so an account is a contiguous slice of every column.
+//
+//   header         magic, version, bucket, row count, account count, base transaction id
+//   transaction id int per row, offset from the base transaction id
+//   operation type int per row
+//   amount cents   long per row
+//   event date     long per row, microseconds since the start of the bucket
+//   account index  per account: account id (long), first row (int), row count (int), amount sum in cents (long)
+public final class TransactionArchiveFile {
+    
+    private static final int MAGIC = 0x50545841;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int INDEX_ENTRY_SIZE = 24;
+    
+    // Every column and the index are mapped separately, and a mapping is limited to 2 GB
+    public static final int MAX_ROWS = Integer.MAX_VALUE / INDEX_ENTRY_SIZE;
+    
+    private final int bucket;
+    private final int rowCount;
+    private final int accountCount;
+    private final long baseTransactionId;
+    private final LocalDateTime bucketStart;
+    private final MappedByteBuffer transactionIds;
+    private final MappedByteBuffer operationTypeIds;
+    private final MappedByteBuffer amounts;
+    private final MappedByteBuffer eventDates;
+    private final MappedByteBuffer accountIndex;
+    
+    private TransactionArchiveFile(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a transaction archive file");
+        }
+        bucket = header.getInt(8);
+        rowCount = header.getInt(12);
+        accountCount = header.getInt(16);
+        baseTransactionId = header.getLong(24);
+        bucketStart = TransactionBucket.start(bucket);
+        
+        long offset = HEADER_SIZE;
+        transactionIds = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) rowCount * Integer.BYTES);
+        offset += (long) rowCount * Integer.BYTES;
+        operationTypeIds = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) rowCount * Integer.BYTES);
+        offset += (long) rowCount * Integer.BYTES;
+        amounts = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) rowCount * Long.BYTES);
+        offset += (long) rowCount * Long.BYTES;
+        eventDates = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) rowCount * Long.BYTES);
+        offset += (long) rowCount * Long.BYTES;
+        accountIndex = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) accountCount * INDEX_ENTRY_SIZE);
+    }
+    
+    // The mappings stay valid after the channel is closed
+    public static TransactionArchiveFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new TransactionArchiveFile(channel);
+        }
+    }
+    
+    public int getBucket() {
+        return bucket;
+    }
+    
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    public int getAccountCount() {
+        return accountCount;
+    }
+    
+    // Entries of the account index, in account id order
+    public long accountIdAt(int entry) {
+        return accountIndex.getLong(entry * INDEX_ENTRY_SIZE);
+    }
+    
+    public long sumCentsAt(int entry) {
+        return accountIndex.getLong(entry * INDEX_ENTRY_SIZE + 16);
+    }
+    
+    // Rows of the account with from <= event_date < to that sort after the cursor, in (event_date, transaction_id) order
+    public List<TransactionResponse> read(long accountId, LocalDateTime from, LocalDateTime to, TransactionCursor after, int limit) {
+        int entry = findAccount(accountId);
+        if (entry < 0) {
+            return List.of();
+        }
+        int first = accountIndex.getInt(entry * INDEX_ENTRY_SIZE + 8);
+        int end = first + accountIndex.getInt(entry * INDEX_ENTRY_SIZE + 12);
+        
+        long fromMicros = toMicros(from);
+        long toMicros = toMicros(to);
+        int row;
+        if (after != null && toMicros(after.getEventDate()) >= fromMicros) {
+            row = firstRowAfter(first, end, toMicros(after.getEventDate()), after.getTransactionId());
+        } else {
+            row = firstRowAfter(first, end, fromMicros, Long.MIN_VALUE);
+        }
+        
+        List<TransactionResponse> transactions = new ArrayList<>(Math.min(limit, end - row));
+        for (; row < end && transactions.size() < limit; row++) {
+            long micros = eventDates.getLong(row * Long.BYTES);
+            if (micros >= toMicros) {
+                break;
+            }
+            transactions.add(new TransactionResponse(transactionId(row), accountId,
+                    (long) operationTypeIds.getInt(row * Integer.BYTES), amounts.getLong(row * Long.BYTES),
+                    bucketStart.plus(micros, ChronoUnit.MICROS)));
+        }
+        return transactions;
+    }
+    
+    private long transactionId(int row) {
+        return baseTransactionId + transactionIds.getInt(row * Integer.BYTES);
+    }
+    
+    private long toMicros(LocalDateTime eventDate) {
+        return ChronoUnit.MICROS.between(bucketStart, eventDate);
+    }
+    
+    // Binary search over the account index
+    private int findAccount(long accountId) {
+        int low = 0;
+        int high = accountCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midAccountId = accountIndex.getLong(mid * INDEX_ENTRY_SIZE);
+            if (midAccountId < accountId) {
+                low = mid + 1;
+            } else if (midAccountId > accountId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+    
+    // First row in [first, end) whose (event_date, transaction_id) is greater than the given key
+    private int firstRowAfter(int first, int end, long micros, long transactionId) {
+        int low = first;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long midMicros = eventDates.getLong(mid * Long.BYTES);
+            if (midMicros < micros || (midMicros == micros && transactionId(mid) <= transactionId)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    // Rows must be appended in (account_id, event_date, transaction_id) order
+    public static final class Writer implements AutoCloseable {
+        
+        private final FileChannel channel;
+        private final int bucket;
+        private final int rowCount;
+        private final long baseTransactionId;
+        private final LocalDateTime bucketStart;
+        private final MappedByteBuffer transactionIds;
+        private final MappedByteBuffer operationTypeIds;
+        private final MappedByteBuffer amounts;
+        private final MappedByteBuffer eventDates;
+        private final long indexOffset;
+        
+        private long[] accountIds = new long[1024];
+        private int[] firstRows = new int[1024];
+        private long[] sums = new long[1024];
+        private int accountCount;
+        private int row;
+        
+        public Writer(Path path, int bucket, int rowCount, long baseTransactionId) throws IOException {
+            if (rowCount <= 0 || rowCount > MAX_ROWS) {
+                throw new IllegalArgumentException("Cannot archive " + rowCount + " rows in one file");
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.bucket = bucket;
+            this.rowCount = rowCount;
+            this.baseTransactionId = baseTransactionId;
+            this.bucketStart = TransactionBucket.start(bucket);
+            
+            long offset = HEADER_SIZE;
+            transactionIds = channel.map(FileChannel.MapMode.READ_WRITE, offset, (long) rowCount * Integer.BYTES);
+            offset += (long) rowCount * Integer.BYTES;
+            operationTypeIds = channel.map(FileChannel.MapMode.READ_WRITE, offset, (long) rowCount * Integer.BYTES);
+            offset += (long) rowCount * Integer.BYTES;
+            amounts = channel.map(FileChannel.MapMode.READ_WRITE, offset, (long) rowCount * Long.BYTES);
+            offset += (long) rowCount * Long.BYTES;
+            eventDates = channel.map(FileChannel.MapMode.READ_WRITE, offset, (long) rowCount * Long.BYTES);
+            indexOffset = offset + (long) rowCount * Long.BYTES;
+        }
+        
+        public void append(long transactionId, long accountId, long operationTypeId, long amountCents, LocalDateTime eventDate) {
+            if (row == rowCount) {
+                throw new IllegalStateException("Bucket " + bucket + " has more rows than counted");
+            }
+            if (accountCount == 0 || accountIds[accountCount - 1] != accountId) {
+                if (accountCount > 0 && accountIds[accountCount - 1] > accountId) {
+                    throw new IllegalStateException("Rows must be appended in account order");
+                }
+                if (accountCount == accountIds.length) {
+                    accountIds = Arrays.copyOf(accountIds, accountCount * 2);
+                    firstRows = Arrays.copyOf(firstRows, accountCount * 2);
+                    sums = Arrays.copyOf(sums, accountCount * 2);
+                }
+                accountIds[accountCount] = accountId;
+                firstRows[accountCount] = row;
+                sums[accountCount] = 0;
+                accountCount++;
+            }
+            sums[accountCount - 1] += amountCents;
+            
+            transactionIds.putInt(row * Integer.BYTES, Math.toIntExact(transactionId - baseTransactionId));
+            operationTypeIds.putInt(row * Integer.BYTES, Math.toIntExact(operationTypeId));
+            amounts.putLong(row * Long.BYTES, amountCents);
+            eventDates.putLong(row * Long.BYTES, ChronoUnit.MICROS.between(bucketStart, eventDate));
+            row++;
+        }
+        
+        // Writes the index and header and forces everything to disk
+        public void finish() throws IOException {
+            if (row != rowCount) {
+                throw new IllegalStateException("Bucket " + bucket + " has " + row + " rows, expected " + rowCount);
+            }
+            ByteBuffer index = ByteBuffer.allocate(accountCount * INDEX_ENTRY_SIZE);
+            for (int i = 0; i < accountCount; i++) {
+                int nextFirstRow = i + 1 < accountCount ? firstRows[i + 1] : rowCount;
+                index.putLong(accountIds[i]).putInt(firstRows[i]).putInt(nextFirstRow - firstRows[i]).putLong(sums[i]);
+            }
+            index.flip();
+            writeFully(index, indexOffset);
+            
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(bucket).putInt(rowCount).putInt(accountCount).putInt(0)
+                    .putLong(baseTransactionId);
+            header.clear();
+            writeFully(header, 0);
+            
+            transactionIds.force();
+            operationTypeIds.force();
+            amounts.force();
+            eventDates.force();
+            channel.force(true);
+        }
+        
+        private void writeFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.model.TransactionBucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Moves whole months out of the transactions table into TransactionArchive files, oldest first
+@Component
+@ConditionalOnProperty(name = "payment.archive.enabled", havingValue = "true")
+public class TransactionArchiver {
+    
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchiver.class);
+    
+    private static final String SELECT_COLD_BUCKETS = "select distinct bucket from transactions where bucket < ? order by bucket";
+    // bucket is not indexed, so both are read in one scan
+    private static final String DESCRIBE_BUCKET = "select count(*), min(transaction_id) from transactions where bucket = ?";
+    private static final String SELECT_BUCKET = "select transaction_id, account_id, operation_type_id, amount_cents, event_date " +
+            "from transactions where bucket = ? order by account_id, event_date, transaction_id";
+    private static final String DELETE_BUCKET = "delete from transactions where bucket = ?";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionArchive transactionArchive;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Months kept in the table, counting the current one
+    @Value("${payment.archive.hot-buckets:3}")
+    private int hotBuckets;
+    
+    @Value("${payment.archive.fetch-size:10000}")
+    private int fetchSize;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Scheduled(cron = "${payment.archive.cron:0 30 2 * * *}")
+    public void archiveColdBuckets() {
+        int cutoff = TransactionBucket.minusMonths(TransactionBucket.of(LocalDateTime.now()), Math.max(hotBuckets, 1) - 1);
+        List<Integer> buckets = jdbcTemplate.queryForList(SELECT_COLD_BUCKETS, Integer.class, cutoff);
+        for (int bucket : buckets) {
+            try {
+                archive(bucket);
+            } catch (IOException | RuntimeException e) {
+                // Stop here: every bucket up to archivedThrough() must be archived for reads to stay complete
+                log.error("Archiving bucket {} failed", bucket, e);
+                meterRegistry.counter("payment.archive.failures").increment();
+                return;
+            }
+        }
+    }
+    
+    void archive(int bucket) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // The bucket is recorded in the transaction that deletes its rows, so every instance sees it either in the
+        // table or in the archive. A file left by a run that stopped before the commit is simply written again
+        TransactionArchiveFile file = write(bucket);
+        int deleted = transactionTemplate.execute(status -> {
+            transactionArchive.record(file);
+            return jdbcTemplate.update(DELETE_BUCKET, bucket);
+        });
+        sample.stop(meterRegistry.timer("payment.archive.bucket"));
+        meterRegistry.counter("payment.archive.rows").increment(deleted);
+        log.info("Archived {} transactions of bucket {}", deleted, bucket);
+    }
+    
+    private TransactionArchiveFile write(int bucket) throws IOException {
+        long[] description = jdbcTemplate.queryForObject(DESCRIBE_BUCKET,
+                (resultSet, rowNum) -> new long[]{resultSet.getLong(1), resultSet.getLong(2)}, bucket);
+        int rowCount = Math.toIntExact(description[0]);
+        long baseTransactionId = description[1];
+        
+        Files.createDirectories(transactionArchive.getDirectory());
+        Path target = transactionArchive.pathFor(bucket);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        
+        // Rows are streamed straight into the mapped columns; nothing but the account index is held in memory
+        try (TransactionArchiveFile.Writer writer = new TransactionArchiveFile.Writer(temp, bucket, rowCount, baseTransactionId)) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_BUCKET);
+                statement.setInt(1, bucket);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, resultSet -> {
+                writer.append(resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3), resultSet.getLong(4),
+                        resultSet.getObject(5, LocalDateTime.class));
+            });
+            writer.finish();
+        }
+        
+        // Readers only ever see complete files
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        return TransactionArchiveFile.open(target);
+    }
+}
@@ -0,0 +1,44 @@
+package com.visa.paymentservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Position of the last row of a history page, handed to clients as an opaque token
+public class TransactionCursor {
+    
+    private final LocalDateTime eventDate;
+    private final Long transactionId;
+    
+    public TransactionCursor(LocalDateTime eventDate, Long transactionId) {
+        this.eventDate = eventDate;
+        this.transactionId = transactionId;
+    }
+    
+    public LocalDateTime getEventDate() {
+        return eventDate;
+    }
+    
+    public Long getTransactionId() {
+        return transactionId;
+    }
+    
+    public String encode() {
+        String raw = eventDate + "|" + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor " + token);
+            }
+            return new TransactionCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor " + token, e);
+        }
+    }
+}
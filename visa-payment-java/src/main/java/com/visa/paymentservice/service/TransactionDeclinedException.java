@@ -0,0 +1,29 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.model.DeclineReason;
+
+public class TransactionDeclinedException extends RuntimeException {
+    
+    private final Long accountId;
+    private final DeclineReason reason;
+    private final long availableCents;
+    
+    public TransactionDeclinedException(Long accountId, DeclineReason reason, long availableCents) {
+        super("Transaction on account " + accountId + " declined: " + reason);
+        this.accountId = accountId;
+        this.reason = reason;
+        this.availableCents = availableCents;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public DeclineReason getReason() {
+        return reason;
+    }
+    
+    public long getAvailableCents() {
+        return availableCents;
+    }
+}
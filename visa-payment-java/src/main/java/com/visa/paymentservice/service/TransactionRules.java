@@ -0,0 +1,61 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.dto.TransactionRequest;
+import com.visa.paymentservice.model.Money;
+import com.visa.paymentservice.model.OperationCategory;
+import com.visa.paymentservice.model.OperationType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Business rules of a transaction that need no persistence, shared by the servlet service and the reactive module
+public final class TransactionRules {
+    
+    private TransactionRules() {}
+    
+    // Applies the sign of the operation type. A purchase in installments posts its first installment now, carrying
+    // the remainder of the division, and schedules the others in equal amounts
+    public static LedgerEntry toEntry(TransactionRequest request, OperationType operationType, String idempotencyKey) {
+        long amountCents = Money.toCents(request.getAmount());
+        OperationCategory category = operationType.getCategory();
+        int installments = request.getInstallments() == null ? 1 : request.getInstallments();
+        String requestHash = idempotencyKey == null ? null : requestHash(request);
+        if (installments == 1) {
+            return new LedgerEntry(request.getAccountId(), operationType, category.apply(amountCents), idempotencyKey,
+                    requestHash, 1, 0);
+        }
+        if (installments < 1) {
+            throw new IllegalArgumentException("Installments must be at least 1");
+        }
+        if (!operationType.isInstallmentsAllowed()) {
+            throw new IllegalArgumentException("Operation type with ID " + request.getOperationTypeId() + " does not allow installments");
+        }
+        if (amountCents < installments) {
+            throw new IllegalArgumentException("Amount is too small for " + installments + " installments");
+        }
+        long installmentCents = amountCents / installments;
+        long firstInstallmentCents = amountCents - installmentCents * (installments - 1);
+        return new LedgerEntry(request.getAccountId(), operationType, category.apply(firstInstallmentCents), idempotencyKey,
+                requestHash, installments, category.apply(installmentCents));
+    }
+    
+    // Hash of the fields that define the request, so equal amounts written as 10.0 and 10.00 hash the same
+    public static String requestHash(TransactionRequest request) {
+        String canonical = request.getAccountId() + "|" + request.getOperationTypeId() + "|"
+                + request.getAmount().stripTrailingZeros().toPlainString() + "|"
+                + (request.getInstallments() == null ? 1 : request.getInstallments());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    // Debits must stay within balance plus credit limit; credits are always accepted
+    public static boolean authorizes(long availableCents, long amountCents) {
+        return amountCents >= 0 || availableCents + amountCents >= 0;
+    }
+}
@@ -1,59 +1,275 @@
 package com.visa.paymentservice.service;
 
+import com.visa.paymentservice.dto.TransactionBatchResult;
+import com.visa.paymentservice.dto.TransactionPageResponse;
 import com.visa.paymentservice.dto.TransactionRequest;
-import com.visa.paymentservice.model.Account;
+import com.visa.paymentservice.dto.TransactionResponse;
 import com.visa.paymentservice.model.OperationType;
-import com.visa.paymentservice.model.Transaction;
-import com.visa.paymentservice.repository.AccountRepository;
-import com.visa.paymentservice.repository.OperationTypeRepository;
+import com.visa.paymentservice.model.TransactionBucket;
 import com.visa.paymentservice.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 @Transactional
 public class TransactionService {
     
+    // Bounds of an open history range
+    private static final LocalDateTime EARLIEST_EVENT_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST_EVENT_DATE = LocalDateTime.of(9999, 12, 1, 0, 0);
+    
     @Autowired
     private TransactionRepository transactionRepository;
     
     @Autowired
-    private AccountRepository accountRepository;
+    private OperationTypeRegistry operationTypeRegistry;
+    
+    @Autowired
+    private AccountIdCache accountIdCache;
+    
+    @Autowired
+    private LedgerWriter ledgerWriter;
+    
+    @Autowired
+    private GroupCommitLedger groupCommitLedger;
+    
+    @Autowired
+    private TransactionArchive transactionArchive;
     
     @Autowired
-    private OperationTypeRepository operationTypeRepository;
+    private AccountLocks accountLocks;
+    
+    @Autowired
+    private AccountLimitService accountLimitService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+    
+    @Value("${payment.history.max-page-size:1000}")
+    private int maxPageSize;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public TransactionResponse createTransaction(TransactionRequest request) {
+        return createTransaction(request, null);
+    }
     
-    public Transaction createTransaction(TransactionRequest request) {
-        // Validate account exists
-        Optional<Account> accountOpt = accountRepository.findById(request.getAccountId());
-        if (accountOpt.isEmpty()) {
-            throw new IllegalArgumentException("Account with ID " + request.getAccountId() + " not found");
+    // Validation runs outside any transaction, so no connection is held while waiting on a group commit
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public TransactionResponse createTransaction(TransactionRequest request, String idempotencyKey) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            OperationType operationType = validate(request);
+            LedgerEntry entry = TransactionRules.toEntry(request, operationType, idempotencyKey);
+            
+            TransactionResponse response;
+            if (groupCommitLedger.isEnabled()) {
+                // Authorized by the flusher, which takes the account locks only while it commits the group
+                response = groupCommitLedger.submit(entry);
+            } else {
+                // Same-account writes queue here, in memory, instead of on the account row in the database
+                ReentrantLock lock = accountLocks.lock(request.getAccountId());
+                try {
+                    response = transactionTemplate.execute(status -> {
+                        // A purchase in installments takes its whole amount off the limit up front
+                        accountLimitService.authorization(List.of(entry.getAccountId())).authorize(entry.getAccountId(), entry.getTotalCents());
+                        return ledgerWriter.write(List.of(entry)).get(0);
+                    });
+                } finally {
+                    lock.unlock();
+                }
+            }
+            outcome = "created";
+            return response;
+        } catch (TransactionDeclinedException e) {
+            outcome = "declined";
+            throw e;
+        } catch (IllegalArgumentException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("payment.transaction.create",
+                    "operation_type", String.valueOf(request.getOperationTypeId()), "outcome", outcome));
         }
-        
-        // Validate operation type exists
-        Optional<OperationType> operationTypeOpt = operationTypeRepository.findById(request.getOperationTypeId());
-        if (operationTypeOpt.isEmpty()) {
-            throw new IllegalArgumentException("Operation type with ID " + request.getOperationTypeId() + " not found");
+    }
+    
+    // Account locks are taken before the database transaction starts, so no connection is held while waiting
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TransactionBatchResult> createTransactions(List<TransactionRequest> requests) {
+        // Resolve every referenced account up front instead of once per item
+        Set<Long> accountIds = new HashSet<>();
+        for (TransactionRequest request : requests) {
+            accountIds.add(request.getAccountId());
         }
+        Set<Long> existingAccountIds = accountIdCache.existing(accountIds);
         
-        Account account = accountOpt.get();
-        OperationType operationType = operationTypeOpt.get();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<TransactionBatchResult> results;
+        List<ReentrantLock> held = accountLocks.lockAll(existingAccountIds);
+        try {
+            results = transactionTemplate.execute(status -> writeBatch(requests, existingAccountIds));
+        } finally {
+            accountLocks.unlock(held);
+        }
+        sample.stop(meterRegistry.timer("payment.transaction.batch"));
+        meterRegistry.summary("payment.transaction.batch.size").record(requests.size());
+        return results;
+    }
+    
+    private List<TransactionBatchResult> writeBatch(List<TransactionRequest> requests, Set<Long> existingAccountIds) {
+        LimitAuthorization limits = accountLimitService.authorization(existingAccountIds);
+        List<TransactionBatchResult> results = new ArrayList<>(requests.size());
+        List<LedgerEntry> chunk = new ArrayList<>(batchSize);
+        List<TransactionBatchResult> chunkResults = new ArrayList<>(batchSize);
+        for (int i = 0; i < requests.size(); i++) {
+            TransactionRequest request = requests.get(i);
+            if (!existingAccountIds.contains(request.getAccountId())) {
+                results.add(new TransactionBatchResult(i, null, "Account with ID " + request.getAccountId() + " not found"));
+                continue;
+            }
+            OperationType operationType = operationTypeRegistry.find(request.getOperationTypeId());
+            if (operationType == null) {
+                results.add(new TransactionBatchResult(i, null, "Operation type with ID " + request.getOperationTypeId() + " not found"));
+                continue;
+            }
+            
+            LedgerEntry entry;
+            try {
+                entry = TransactionRules.toEntry(request, operationType, null);
+                limits.authorize(request.getAccountId(), entry.getTotalCents());
+            } catch (TransactionDeclinedException e) {
+                results.add(new TransactionBatchResult(i, null, "Declined: " + e.getReason()));
+                continue;
+            } catch (IllegalArgumentException e) {
+                results.add(new TransactionBatchResult(i, null, e.getMessage()));
+                continue;
+            }
+            TransactionBatchResult result = new TransactionBatchResult(i, null, null);
+            results.add(result);
+            chunk.add(entry);
+            chunkResults.add(result);
+            if (chunk.size() == batchSize) {
+                writeChunk(chunk, chunkResults);
+            }
+        }
+        writeChunk(chunk, chunkResults);
+        return results;
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<TransactionPageResponse> getTransactionPage(Long accountId, String cursor, int limit) {
+        return getTransactionPage(accountId, null, null, cursor, limit);
+    }
+    
+    // from is inclusive and to exclusive; either may be null for an open range
+    @Transactional(readOnly = true)
+    public Optional<TransactionPageResponse> getTransactionPage(Long accountId, LocalDateTime from, LocalDateTime to,
+                                                                String cursor, int limit) {
+        if (!accountIdCache.exists(accountId)) {
+            return Optional.empty();
+        }
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+        from = from != null ? from : EARLIEST_EVENT_DATE;
+        to = to != null ? to : LATEST_EVENT_DATE;
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        TransactionCursor after = cursor == null || cursor.isEmpty() ? null : TransactionCursor.decode(cursor);
         
-        // Apply business rules for amount sign based on operation type
-        BigDecimal amount = request.getAmount();
-        String operationDescription = operationType.getDescription().toLowerCase();
+        // Archived buckets are all older than the ones still in the table, so they are read first
+        int archivedThrough = transactionArchive.archivedThrough();
+        List<TransactionResponse> transactions = new ArrayList<>(
+                transactionArchive.read(accountId, from, to, after, limit, archivedThrough));
+        // The table holds no archived rows, so it is only skipped when the whole range is archived
+        if (transactions.size() < limit && TransactionBucket.of(to) > archivedThrough) {
+            PageRequest page = PageRequest.of(0, limit - transactions.size());
+            if (after == null) {
+                transactions.addAll(transactionRepository.findFirstPage(accountId, from, to, page));
+            } else {
+                transactions.addAll(transactionRepository.findPageAfter(accountId, from, to,
+                        after.getEventDate(), after.getTransactionId(), page));
+            }
+        }
         
-        // Purchase and withdrawal transactions should be negative
-        if (operationDescription.contains("purchase") || operationDescription.contains("withdrawal")) {
-            amount = amount.negate();
+        // A short page means there is nothing left to read
+        String nextCursor = null;
+        if (transactions.size() == limit) {
+            TransactionResponse last = transactions.get(transactions.size() - 1);
+            nextCursor = new TransactionCursor(last.getEventDate(), last.getTransactionId()).encode();
+        }
+        return Optional.of(new TransactionPageResponse(transactions, nextCursor));
+    }
+    
+    private OperationType validate(TransactionRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            // Validate account exists
+            if (!accountIdCache.exists(request.getAccountId())) {
+                throw new IllegalArgumentException("Account with ID " + request.getAccountId() + " not found");
+            }
+            
+            // Validate operation type exists
+            OperationType operationType = operationTypeRegistry.find(request.getOperationTypeId());
+            if (operationType == null) {
+                throw new IllegalArgumentException("Operation type with ID " + request.getOperationTypeId() + " not found");
+            }
+            return operationType;
+        } finally {
+            sample.stop(meterRegistry.timer("payment.transaction.validation",
+                    "operation_type", String.valueOf(request.getOperationTypeId())));
+        }
+    }
+    
+    private void writeChunk(List<LedgerEntry> chunk, List<TransactionBatchResult> chunkResults) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<TransactionResponse> responses = ledgerWriter.write(chunk);
+        for (int i = 0; i < responses.size(); i++) {
+            chunkResults.get(i).setTransactionId(responses.get(i).getTransactionId());
         }
-        // Credit voucher transactions should be positive (already positive from validation)
         
-        Transaction transaction = new Transaction(account, operationType, amount);
-        return transactionRepository.save(transaction);
+        // Flush in JDBC batches and keep the persistence context from growing with the request
+        entityManager.flush();
+        entityManager.clear();
+        chunk.clear();
+        chunkResults.clear();
     }
 }
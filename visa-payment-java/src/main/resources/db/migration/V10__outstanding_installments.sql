@@ -0,0 +1,7 @@
+-- Installments scheduled but not yet posted, kept next to the balance so authorizing a debit never sums the
+-- schedules. Signed like the balance; the writer that schedules or posts an installment moves it
+alter table account_balances add column outstanding_installment_cents bigint default 0 not null;
+
+update account_balances b set outstanding_installment_cents = (
+    select coalesce(sum(s.installment_cents * (s.installment_count - s.installments_posted)), 0)
+    from installment_schedules s where s.account_id = b.account_id and s.next_due_date is not null);
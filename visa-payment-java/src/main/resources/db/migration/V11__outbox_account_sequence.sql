@@ -0,0 +1,17 @@
+-- Event ids come from a pooled sequence, so with several writing instances they do not follow commit order within
+-- an account. Each event gets a per-account sequence instead, drawn from a counter on the balance row, which its
+-- write holds locked until commit
+alter table account_balances add column event_sequence bigint default 0 not null;
+
+alter table transaction_outbox add column account_sequence bigint;
+
+update transaction_outbox o set account_sequence = (
+    select count(*) from transaction_outbox p where p.account_id = o.account_id and p.event_id <= o.event_id);
+
+alter table transaction_outbox alter column account_sequence set not null;
+
+update account_balances b set event_sequence = (
+    select coalesce(max(o.account_sequence), 0) from transaction_outbox o where o.account_id = b.account_id);
+
+-- The relay's read order
+create index idx_transaction_outbox_account_sequence on transaction_outbox (account_sequence, event_id);
@@ -0,0 +1,4 @@
+-- Every account now gets its balance row when it is created. Accounts that were never written to have none yet
+insert into account_balances (account_id, balance_cents, outstanding_installment_cents, event_sequence, updated_at)
+select a.account_id, 0, 0, 0, localtimestamp from accounts a
+where not exists (select 1 from account_balances b where b.account_id = a.account_id);
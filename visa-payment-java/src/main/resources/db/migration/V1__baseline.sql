@@ -0,0 +1,42 @@
+create table accounts (
+    account_id bigint generated by default as identity primary key,
+    document_number bigint not null,
+    constraint uk_accounts_document_number unique (document_number)
+);
+
+create table operation_types (
+    operation_type_id bigint generated by default as identity primary key,
+    description varchar(255) not null,
+    category varchar(16) not null
+);
+
+create sequence transactions_seq start with 1 increment by 50;
+
+create table transactions (
+    transaction_id bigint primary key,
+    account_id bigint not null references accounts (account_id),
+    operation_type_id bigint not null references operation_types (operation_type_id),
+    amount_cents bigint not null,
+    event_date timestamp(6) not null
+);
+
+create index idx_transactions_account_event_date on transactions (account_id, event_date, transaction_id);
+
+create table account_balances (
+    account_id bigint primary key,
+    balance_cents bigint not null,
+    updated_at timestamp(6) not null
+);
+
+create table idempotency_keys (
+    idempotency_key varchar(128) primary key,
+    transaction_id bigint not null,
+    account_id bigint not null,
+    operation_type_id bigint not null,
+    amount_cents bigint not null,
+    event_date timestamp(6) not null,
+    created_at timestamp(6) not null
+);
+
+-- Used by the periodic purge of expired keys
+create index idx_idempotency_keys_created_at on idempotency_keys (created_at);
@@ -0,0 +1,11 @@
+create sequence transaction_outbox_seq start with 1 increment by 50;
+
+create table transaction_outbox (
+    event_id bigint primary key,
+    transaction_id bigint not null,
+    account_id bigint not null,
+    operation_type_id bigint not null,
+    amount_cents bigint not null,
+    event_date timestamp(6) not null,
+    created_at timestamp(6) not null
+);
@@ -0,0 +1,8 @@
+-- Month of event_date as yyyyMM; whole buckets are moved to archive files by TransactionArchiver.
+-- Not indexed: history reads go through idx_transactions_account_event_date, and only the nightly archiver
+-- filters on bucket alone, so an index would cost every insert more than it saves
+alter table transactions add column bucket int;
+
+update transactions set bucket = extract(year from event_date) * 100 + extract(month from event_date);
+
+alter table transactions alter column bucket set not null;
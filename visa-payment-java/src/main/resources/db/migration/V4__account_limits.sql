@@ -0,0 +1,6 @@
+-- Credit limit per account; accounts without a row use payment.limits.default-credit-limit
+create table account_limits (
+    account_id bigint primary key,
+    credit_limit_cents bigint not null,
+    updated_at timestamp(6) not null
+);
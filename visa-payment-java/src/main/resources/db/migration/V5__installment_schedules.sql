@@ -0,0 +1,17 @@
+-- One row per purchase in installments; next_due_date is null once every installment has been posted
+create sequence installment_schedule_seq start with 1 increment by 50;
+
+create table installment_schedules (
+    schedule_id bigint primary key,
+    purchase_transaction_id bigint not null,
+    account_id bigint not null,
+    operation_type_id bigint not null,
+    installment_cents bigint not null,
+    installment_count int not null,
+    installments_posted int not null,
+    purchase_date date not null,
+    next_due_date date
+);
+
+create index idx_installment_schedules_next_due_date on installment_schedules (next_due_date);
+create index idx_installment_schedules_account on installment_schedules (account_id);
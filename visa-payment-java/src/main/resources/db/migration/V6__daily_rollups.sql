@@ -0,0 +1,15 @@
+-- Count and sum per account, day and operation type, maintained by LedgerWriter with every transaction
+create table daily_rollups (
+    account_id bigint not null,
+    rollup_date date not null,
+    operation_type_id bigint not null,
+    transaction_count bigint not null,
+    amount_cents bigint not null,
+    constraint pk_daily_rollups primary key (account_id, rollup_date, operation_type_id)
+);
+
+-- Months already moved to archive files are no longer in the table and are not backfilled
+insert into daily_rollups (account_id, rollup_date, operation_type_id, transaction_count, amount_cents)
+select account_id, cast(event_date as date), operation_type_id, count(*), sum(amount_cents)
+from transactions
+group by account_id, cast(event_date as date), operation_type_id;
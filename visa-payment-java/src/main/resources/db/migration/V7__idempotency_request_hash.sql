@@ -0,0 +1,2 @@
+-- SHA-256 of the request a key was first used for; null for keys stored before the column existed
+alter table idempotency_keys add column request_hash varchar(64);
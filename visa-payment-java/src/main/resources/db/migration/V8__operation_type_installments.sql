@@ -0,0 +1,4 @@
+-- Which operation types may be split into installments, instead of matching on the description
+alter table operation_types add column installments_allowed boolean default false not null;
+
+update operation_types set installments_allowed = true where description = 'Purchase with installments';
@@ -0,0 +1,15 @@
+-- Buckets moved to archive files, recorded in the transaction that deletes their rows, so every instance
+-- agrees on which months are archived
+create table archived_buckets (
+    bucket int primary key,
+    row_count int not null,
+    archived_at timestamp(6) not null
+);
+
+-- Each account's sum per archived bucket, so a balance rebuild does not read the archive files
+create table archived_account_sums (
+    account_id bigint not null,
+    bucket int not null,
+    amount_cents bigint not null,
+    constraint pk_archived_account_sums primary key (account_id, bucket)
+);
@@ -0,0 +1,292 @@
+package com.visa.paymentservice.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.visa.paymentservice.PaymentServiceApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+// Drives the REST API of an embedded instance at a fixed concurrency and compares throughput and p99 per scenario
+// against a stored baseline. The process exits with 1 on a regression, which fails mvn -Pperf verify.
+// Workers run a closed loop: each sends its next request as soon as the previous one has answered
+public class LoadTest {
+    
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(60);
+    
+    private final int concurrency = Integer.getInteger("perf.concurrency", 32);
+    private final Duration warmup = Duration.parse(System.getProperty("perf.warmup", "PT10S"));
+    private final Duration duration = Duration.parse(System.getProperty("perf.duration", "PT30S"));
+    private final Path baselineFile = Path.of(System.getProperty("perf.baseline", "src/perf/baseline.properties"));
+    private final Path outputDirectory = Path.of(System.getProperty("perf.output", "target/perf"));
+    private final boolean updateBaseline = Boolean.getBoolean("perf.update-baseline");
+    // Allowed drop in throughput and rise in p99, as a fraction of the baseline
+    private final double throughputTolerance = Double.parseDouble(System.getProperty("perf.tolerance.throughput", "0.20"));
+    private final double p99Tolerance = Double.parseDouble(System.getProperty("perf.tolerance.p99", "0.25"));
+    
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong documentNumbers = new AtomicLong();
+    private final ConcurrentLinkedQueue<Long> createdAccountIds = new ConcurrentLinkedQueue<>();
+    private volatile long[] accountIds;
+    private String baseUrl;
+    
+    public static void main(String[] args) throws Exception {
+        System.exit(new LoadTest().run() ? 0 : 1);
+    }
+    
+    boolean run() throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(PaymentServiceApplication.class,
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--spring.h2.console.enabled=false",
+                "--logging.level.root=WARN",
+                // Every purchase of the run must be authorized
+                "--payment.limits.default-credit-limit=99999999.99");
+        List<Result> results = new ArrayList<>();
+        try {
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            
+            // Later scenarios use the accounts created by the first one
+            results.add(measure("create-account", () -> post("/accounts",
+                    "{\"documentNumber\": \"" + String.format("%011d", documentNumbers.incrementAndGet()) + "\"}",
+                    body -> createdAccountIds.add(readAccountId(body)))));
+            accountIds = createdAccountIds.stream().mapToLong(Long::longValue).toArray();
+            if (accountIds.length == 0) {
+                throw new IllegalStateException("No account was created");
+            }
+            results.add(measure("get-account", () -> get("/accounts/" + randomAccountId())));
+            results.add(measure("create-transaction", () -> post("/transactions",
+                    "{\"accountId\": " + randomAccountId() + ", \"operationTypeId\": 1, \"amount\": 1.00}", null)));
+        } finally {
+            context.close();
+        }
+        
+        Files.createDirectories(outputDirectory);
+        Properties measured = new Properties();
+        for (Result result : results) {
+            result.report(System.out);
+            result.writeDistribution(outputDirectory);
+            result.store(measured);
+        }
+        store(measured, outputDirectory.resolve("results.properties"));
+        if (updateBaseline) {
+            store(measured, baselineFile);
+            System.out.println("Baseline written to " + baselineFile);
+            return true;
+        }
+        return compare(results);
+    }
+    
+    private Result measure(String scenario, IntSupplier request) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            // Warmup results are discarded, only JIT and pool state carry over. A failed warmup request means the
+            // scenario itself is broken, so it aborts the run rather than being measured
+            runFor(executor, warmup, request, scenario);
+            long start = System.nanoTime();
+            List<Worker> workers = runFor(executor, duration, request, null);
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            
+            Histogram histogram = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+            long errors = 0;
+            for (Worker worker : workers) {
+                histogram.add(worker.histogram);
+                errors += worker.errors;
+            }
+            return new Result(scenario, histogram, errors, elapsedSeconds);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    // failOnError names the scenario when any non-2xx response should stop the run
+    private List<Worker> runFor(ExecutorService executor, Duration length, IntSupplier request, String failOnError) throws Exception {
+        long deadline = System.nanoTime() + length.toNanos();
+        List<Future<Worker>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(executor.submit(() -> {
+                Worker worker = new Worker();
+                while (System.nanoTime() < deadline) {
+                    long sent = System.nanoTime();
+                    int status = request.getAsInt();
+                    worker.histogram.recordValue(Math.min(System.nanoTime() - sent, HIGHEST_TRACKABLE_NANOS));
+                    if (status < 200 || status >= 300) {
+                        if (failOnError != null) {
+                            throw new IllegalStateException(failOnError + " warmup request failed with status " + status);
+                        }
+                        worker.errors++;
+                    }
+                }
+                return worker;
+            }));
+        }
+        List<Worker> workers = new ArrayList<>(concurrency);
+        for (Future<Worker> future : futures) {
+            try {
+                workers.add(future.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IllegalStateException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return workers;
+    }
+    
+    private boolean compare(List<Result> results) throws IOException {
+        if (!Files.exists(baselineFile)) {
+            System.out.println("No baseline at " + baselineFile + ", nothing to compare. Record one with -Dperf.update-baseline=true");
+            return results.stream().allMatch(result -> result.errors == 0);
+        }
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(baselineFile)) {
+            baseline.load(reader);
+        }
+        
+        boolean passed = true;
+        for (Result result : results) {
+            if (result.errors > 0) {
+                System.out.printf("FAIL %s: %d requests failed%n", result.scenario, result.errors);
+                passed = false;
+            }
+            String expectedThroughput = baseline.getProperty(result.scenario + ".throughput");
+            if (expectedThroughput != null && result.throughput() < Double.parseDouble(expectedThroughput) * (1 - throughputTolerance)) {
+                System.out.printf("FAIL %s: throughput %.1f req/s, baseline %s req/s%n", result.scenario, result.throughput(), expectedThroughput);
+                passed = false;
+            }
+            String expectedP99 = baseline.getProperty(result.scenario + ".p99.ms");
+            if (expectedP99 != null && result.percentileMillis(99) > Double.parseDouble(expectedP99) * (1 + p99Tolerance)) {
+                System.out.printf("FAIL %s: p99 %.3f ms, baseline %s ms%n", result.scenario, result.percentileMillis(99), expectedP99);
+                passed = false;
+            }
+        }
+        System.out.println(passed ? "No regression against " + baselineFile : "Performance regression against " + baselineFile);
+        return passed;
+    }
+    
+    private int post(String path, String json, Consumer<String> onSuccess) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return send(request, onSuccess);
+    }
+    
+    private int get(String path) {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(), null);
+    }
+    
+    private int send(HttpRequest request, Consumer<String> onSuccess) {
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (onSuccess != null && response.statusCode() / 100 == 2) {
+                onSuccess.accept(response.body());
+            }
+            return response.statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+    
+    private long readAccountId(String body) {
+        try {
+            return objectMapper.readTree(body).get("accountId").asLong();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected account response: " + body, e);
+        }
+    }
+    
+    private long randomAccountId() {
+        return accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)];
+    }
+    
+    private static void store(Properties properties, Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            properties.store(writer, "scenario.throughput in req/s, scenario.p99.ms in milliseconds");
+        }
+    }
+    
+    private static class Worker {
+        
+        private final Histogram histogram = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        private long errors;
+    }
+    
+    private static class Result {
+        
+        private final String scenario;
+        private final Histogram histogram;
+        private final long errors;
+        private final double elapsedSeconds;
+        
+        Result(String scenario, Histogram histogram, long errors, double elapsedSeconds) {
+            this.scenario = scenario;
+            this.histogram = histogram;
+            this.errors = errors;
+            this.elapsedSeconds = elapsedSeconds;
+        }
+        
+        double throughput() {
+            return histogram.getTotalCount() / elapsedSeconds;
+        }
+        
+        double percentileMillis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1e6;
+        }
+        
+        void report(PrintStream out) {
+            out.printf("%-20s %10.1f req/s  p50 %8.3f ms  p99 %8.3f ms  p99.9 %8.3f ms  max %8.3f ms  errors %d%n",
+                    scenario, throughput(), percentileMillis(50), percentileMillis(99), percentileMillis(99.9),
+                    histogram.getMaxValue() / 1e6, errors);
+        }
+        
+        // Full latency distribution in milliseconds, readable by the HdrHistogram plotter
+        void writeDistribution(Path directory) throws IOException {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(scenario + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1e6);
+            }
+        }
+        
+        void store(Properties properties) {
+            properties.setProperty(scenario + ".throughput", String.format(Locale.ROOT, "%.1f", throughput()));
+            properties.setProperty(scenario + ".p99.ms", String.format(Locale.ROOT, "%.3f", percentileMillis(99)));
+        }
+    }
+}
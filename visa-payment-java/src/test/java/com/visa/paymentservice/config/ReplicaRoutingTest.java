@@ -0,0 +1,90 @@
+package com.visa.paymentservice.config;
+
+import com.visa.paymentservice.dto.AccountRequest;
+import com.visa.paymentservice.dto.AccountResponse;
+import com.visa.paymentservice.dto.TransactionResponse;
+import com.visa.paymentservice.service.AccountIdCache;
+import com.visa.paymentservice.service.AccountService;
+import com.visa.paymentservice.service.IdempotencyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Primary and replica are two separate in-memory databases, and each side has a row the other lacks, so the
+// database a query reached is visible in its result. Not @Transactional: a test transaction would pin the primary
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "payment.datasource.replica.enabled=true",
+        "payment.datasource.replica.url=jdbc:h2:mem:routing-replica;INIT=RUNSCRIPT FROM 'classpath:replica-schema.sql'"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    private static final String COUNT_BY_DOCUMENT_NUMBER = "select count(*) from accounts where document_number = ?";
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountIdCache accountIdCache;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Test
+    void readOnlyTransaction_ReadsFromReplica() {
+        Optional<AccountResponse> account = accountService.getAccount(4242L);
+
+        assertTrue(account.isPresent());
+        assertEquals("99988877766", account.get().getDocumentNumber());
+        assertEquals(0, new JdbcTemplate(primaryDataSource).queryForObject(COUNT_BY_DOCUMENT_NUMBER, Integer.class, 99988877766L));
+    }
+
+    @Test
+    void writeTransaction_WritesToPrimary() {
+        accountService.createAccount(new AccountRequest("12312312312"));
+
+        assertEquals(1, new JdbcTemplate(primaryDataSource).queryForObject(COUNT_BY_DOCUMENT_NUMBER, Integer.class, 12312312312L));
+        assertEquals(0, new JdbcTemplate(replicaDataSource).queryForObject(COUNT_BY_DOCUMENT_NUMBER, Integer.class, 12312312312L));
+    }
+
+    @Test
+    void accountLookup_OutsideTransaction_ReadsFromPrimary() {
+        AccountResponse created = accountService.createAccount(new AccountRequest("45645645645"));
+
+        assertTrue(accountIdCache.exists(created.getAccountId()));
+        assertFalse(accountIdCache.exists(4242L));
+    }
+
+    @Test
+    void storedIdempotencyKey_OutsideTransaction_ReadsFromPrimary() {
+        // The replica has no idempotency_keys table, so a lookup routed there would fail
+        new JdbcTemplate(primaryDataSource).update("insert into idempotency_keys (idempotency_key, transaction_id, " +
+                "account_id, operation_type_id, amount_cents, event_date, created_at, request_hash) values (?, ?, ?, ?, ?, ?, ?, ?)",
+                "routing-key", 77L, 1L, 1L, -1000L, LocalDateTime.now(), LocalDateTime.now(), "hash");
+
+        TransactionResponse response = idempotencyService.execute("routing-key", "hash", () -> fail("The stored response should be replayed"));
+
+        assertEquals(77L, response.getTransactionId());
+    }
+}
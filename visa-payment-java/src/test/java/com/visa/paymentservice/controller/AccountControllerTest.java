@@ -6,19 +6,20 @@ import com.visa.paymentservice.model.Account;
 import com.visa.paymentservice.repository.AccountRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
-@AutoConfigureWebMvc
+@AutoConfigureMockMvc
 @ActiveProfiles("test")
 @Transactional
 class AccountControllerTest {
@@ -40,8 +41,8 @@ class AccountControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.account_id").exists())
-                .andExpect(jsonPath("$.document_number").value("12345678900"));
+                .andExpect(jsonPath("$.accountId").exists())
+                .andExpect(jsonPath("$.documentNumber").value("12345678900"));
     }
 
     @Test
@@ -76,8 +77,8 @@ class AccountControllerTest {
 
         mockMvc.perform(get("/accounts/{accountId}", savedAccount.getAccountId()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.account_id").value(savedAccount.getAccountId()))
-                .andExpect(jsonPath("$.document_number").value("12345678900"));
+                .andExpect(jsonPath("$.accountId").value(savedAccount.getAccountId()))
+                .andExpect(jsonPath("$.documentNumber").value("12345678900"));
     }
 
     @Test
@@ -85,4 +86,52 @@ class AccountControllerTest {
         mockMvc.perform(get("/accounts/{accountId}", 999L))
                 .andExpect(status().isNotFound());
     }
+    
+    @Test
+    void getAccountByDocumentNumber_ExistingAccount_ReturnsOk() throws Exception {
+        Account savedAccount = accountRepository.save(new Account("01234567890"));
+
+        mockMvc.perform(get("/accounts").param("documentNumber", "01234567890"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value(savedAccount.getAccountId()))
+                .andExpect(jsonPath("$.documentNumber").value("01234567890"));
+    }
+    
+    @Test
+    void getAccountByDocumentNumber_InvalidDocumentNumber_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/accounts").param("documentNumber", "123"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void importAccounts_Csv_ReportsImportedDuplicatesAndRejects() throws Exception {
+        accountRepository.save(new Account("11111111111"));
+        String csv = "document_number\n12345678900\n123\n12345678900\n11111111111\n";
+
+        String result = mockMvc.perform(post("/accounts/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.duplicates").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andReturn().getResponse().getContentAsString();
+        String rejectsId = objectMapper.readTree(result).get("rejectsId").asText();
+
+        mockMvc.perform(get("/accounts/import/rejects/{rejectsId}", rejectsId))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("3,\"123\",")));
+
+        mockMvc.perform(get("/accounts/import/rejects/{rejectsId}", "../application.yml"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/accounts").param("documentNumber", "12345678900"))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void getBalance_NonExistentAccount_ReturnsNotFound() throws Exception {
+        mockMvc.perform(get("/accounts/{accountId}/balance", 999L))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -1,15 +1,17 @@
 package com.visa.paymentservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.visa.paymentservice.dto.TransactionBatchRequest;
 import com.visa.paymentservice.dto.TransactionRequest;
 import com.visa.paymentservice.model.Account;
+import com.visa.paymentservice.model.OperationCategory;
 import com.visa.paymentservice.model.OperationType;
 import com.visa.paymentservice.repository.AccountRepository;
 import com.visa.paymentservice.repository.OperationTypeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
@@ -17,12 +19,16 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
-@AutoConfigureWebMvc
+@AutoConfigureMockMvc
 @ActiveProfiles("test")
 @Transactional
 class TransactionControllerTest {
@@ -69,11 +75,11 @@ class TransactionControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.transaction_id").exists())
-                .andExpect(jsonPath("$.account.account_id").value(testAccount.getAccountId()))
-                .andExpect(jsonPath("$.operation_type.operation_type_id").value(normalPurchase.getOperationTypeId()))
+                .andExpect(jsonPath("$.transactionId").exists())
+                .andExpect(jsonPath("$.accountId").value(testAccount.getAccountId()))
+                .andExpect(jsonPath("$.operationTypeId").value(normalPurchase.getOperationTypeId()))
                 .andExpect(jsonPath("$.amount").value(-50.00)) // Should be negative for purchase
-                .andExpect(jsonPath("$.event_date").exists());
+                .andExpect(jsonPath("$.eventDate").exists());
     }
 
     @Test
@@ -91,6 +97,49 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.amount").value(25.00)); // Should be positive for credit voucher
     }
 
+    @Test
+    void createTransaction_AcceptCbor_ReturnsCbor() throws Exception {
+        TransactionRequest request = new TransactionRequest(
+                testAccount.getAccountId(),
+                normalPurchase.getOperationTypeId(),
+                new BigDecimal("50.00")
+        );
+        
+        mockMvc.perform(post("/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+    }
+    
+    @Test
+    void createTransaction_RepeatedIdempotencyKey_ReturnsOriginal() throws Exception {
+        TransactionRequest request = new TransactionRequest(
+                testAccount.getAccountId(),
+                normalPurchase.getOperationTypeId(),
+                new BigDecimal("50.00")
+        );
+        
+        String first = mockMvc.perform(post("/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "retry-test-1")
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long transactionId = objectMapper.readTree(first).get("transactionId").asLong();
+        
+        mockMvc.perform(post("/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "retry-test-1")
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.transactionId").value(transactionId));
+        
+        mockMvc.perform(get("/accounts/{accountId}/balance", testAccount.getAccountId()))
+                .andExpect(jsonPath("$.balance").value(-50.00));
+    }
+    
     @Test
     void createTransaction_InvalidAccountId_ReturnsBadRequest() throws Exception {
         TransactionRequest request = new TransactionRequest(
@@ -132,4 +181,213 @@ class TransactionControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
     }
+    
+    @Test
+    void createTransaction_SubCentAmount_ReturnsBadRequest() throws Exception {
+        TransactionRequest request = new TransactionRequest(
+                testAccount.getAccountId(),
+                normalPurchase.getOperationTypeId(),
+                new BigDecimal("10.005")
+        );
+
+        mockMvc.perform(post("/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void createTransactions_Batch_ReturnsPerItemResults() throws Exception {
+        TransactionBatchRequest request = new TransactionBatchRequest(List.of(
+                new TransactionRequest(testAccount.getAccountId(), normalPurchase.getOperationTypeId(), new BigDecimal("10.00")),
+                new TransactionRequest(999L, normalPurchase.getOperationTypeId(), new BigDecimal("10.00")),
+                new TransactionRequest(testAccount.getAccountId(), creditVoucher.getOperationTypeId(), new BigDecimal("5.00"))
+        ));
+        
+        mockMvc.perform(post("/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].transactionId").exists())
+                .andExpect(jsonPath("$[1].transactionId").doesNotExist())
+                .andExpect(jsonPath("$[1].error").exists())
+                .andExpect(jsonPath("$[2].transactionId").exists());
+    }
+    
+    @Test
+    void createTransaction_AboveCreditLimit_ReturnsDeclined() throws Exception {
+        mockMvc.perform(put("/accounts/{accountId}/limit", testAccount.getAccountId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"creditLimit\": 100.00}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableLimit").value(100.00));
+        
+        TransactionRequest request = new TransactionRequest(
+                testAccount.getAccountId(),
+                normalPurchase.getOperationTypeId(),
+                new BigDecimal("150.00")
+        );
+        
+        mockMvc.perform(post("/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.declineReason").value("INSUFFICIENT_LIMIT"))
+                .andExpect(jsonPath("$.availableLimit").value(100.00));
+        
+        mockMvc.perform(get("/accounts/{accountId}/balance", testAccount.getAccountId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(0.00));
+    }
+    
+    @Test
+    void createTransaction_Installments_PostsFirstInstallment() throws Exception {
+        OperationType installmentPurchase = operationTypeRepository.save(new OperationType("Purchase with installments", OperationCategory.DEBIT, true));
+        TransactionRequest request = new TransactionRequest(
+                testAccount.getAccountId(),
+                installmentPurchase.getOperationTypeId(),
+                new BigDecimal("100.00"),
+                3
+        );
+        
+        // The first installment carries the remainder of the division
+        mockMvc.perform(post("/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.amount").value(-33.34));
+        
+        // The whole purchase counts against the limit
+        mockMvc.perform(get("/accounts/{accountId}/limit", testAccount.getAccountId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableLimit").value(9900.00));
+        
+        request.setOperationTypeId(normalPurchase.getOperationTypeId());
+        mockMvc.perform(post("/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void getSummary_AfterTransactions_ReturnsDailyTotalsByOperationType() throws Exception {
+        TransactionRequest purchase = new TransactionRequest(
+                testAccount.getAccountId(),
+                normalPurchase.getOperationTypeId(),
+                new BigDecimal("50.00")
+        );
+        TransactionRequest voucher = new TransactionRequest(
+                testAccount.getAccountId(),
+                creditVoucher.getOperationTypeId(),
+                new BigDecimal("20.00")
+        );
+        
+        for (TransactionRequest request : List.of(purchase, purchase, voucher)) {
+            mockMvc.perform(post("/transactions")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+        }
+        
+        // Both purchases share one rollup row
+        mockMvc.perform(get("/accounts/{accountId}/summary", testAccount.getAccountId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.days.length()").value(2))
+                .andExpect(jsonPath("$.days[0].operationTypeId").value(normalPurchase.getOperationTypeId()))
+                .andExpect(jsonPath("$.days[0].transactionCount").value(2))
+                .andExpect(jsonPath("$.days[0].amount").value(-100.00))
+                .andExpect(jsonPath("$.days[1].transactionCount").value(1))
+                .andExpect(jsonPath("$.days[1].amount").value(20.00));
+        
+        mockMvc.perform(get("/accounts/{accountId}/summary", testAccount.getAccountId())
+                        .param("from", "2024-02-01")
+                        .param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void createTransaction_UpdatesAccountBalance() throws Exception {
+        TransactionRequest purchase = new TransactionRequest(
+                testAccount.getAccountId(),
+                normalPurchase.getOperationTypeId(),
+                new BigDecimal("50.00")
+        );
+        TransactionRequest voucher = new TransactionRequest(
+                testAccount.getAccountId(),
+                creditVoucher.getOperationTypeId(),
+                new BigDecimal("20.00")
+        );
+        
+        for (TransactionRequest request : List.of(purchase, voucher)) {
+            mockMvc.perform(post("/transactions")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+        }
+        
+        mockMvc.perform(get("/accounts/{accountId}/balance", testAccount.getAccountId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(-30.00));
+    }
+    
+    @Test
+    void getTransactions_PagesWithCursor() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            TransactionRequest request = new TransactionRequest(
+                    testAccount.getAccountId(),
+                    creditVoucher.getOperationTypeId(),
+                    new BigDecimal("1.00")
+            );
+            mockMvc.perform(post("/transactions")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+        }
+        
+        String firstPage = mockMvc.perform(get("/accounts/{accountId}/transactions", testAccount.getAccountId())
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").exists())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+        
+        mockMvc.perform(get("/accounts/{accountId}/transactions", testAccount.getAccountId())
+                        .param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+    
+    @Test
+    void getTransactions_DateRange_PrunesOutsideRange() throws Exception {
+        TransactionRequest request = new TransactionRequest(
+                testAccount.getAccountId(),
+                creditVoucher.getOperationTypeId(),
+                new BigDecimal("1.00")
+        );
+        mockMvc.perform(post("/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+        
+        LocalDateTime now = LocalDateTime.now();
+        mockMvc.perform(get("/accounts/{accountId}/transactions", testAccount.getAccountId())
+                        .param("from", now.minusMonths(1).toString())
+                        .param("to", now.plusDays(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions.length()").value(1));
+        
+        mockMvc.perform(get("/accounts/{accountId}/transactions", testAccount.getAccountId())
+                        .param("from", now.minusYears(2).toString())
+                        .param("to", now.minusYears(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions.length()").value(0));
+        
+        mockMvc.perform(get("/accounts/{accountId}/transactions", testAccount.getAccountId())
+                        .param("from", now.toString())
+                        .param("to", now.minusDays(1).toString()))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,93 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.model.Account;
+import com.visa.paymentservice.model.OperationCategory;
+import com.visa.paymentservice.model.OperationType;
+import com.visa.paymentservice.repository.AccountRepository;
+import com.visa.paymentservice.repository.OperationTypeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Not @Transactional: what the cache holds after a commit or a rollback is the point. A database of its own keeps
+// the rows out of the other tests
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:limittest")
+@ActiveProfiles("test")
+class AccountLimitServiceTest {
+
+    @Autowired
+    private AccountLimitService accountLimitService;
+
+    @Autowired
+    private LedgerWriter ledgerWriter;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private OperationTypeRepository operationTypeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Account account;
+    private OperationType purchase;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        account = accountRepository.save(new Account(String.format("%011d", System.nanoTime() % 100_000_000_000L)));
+        purchase = operationTypeRepository.save(new OperationType("Purchase with installments", OperationCategory.DEBIT, true));
+        accountLimitService.setLimit(account.getAccountId(), new BigDecimal("100.00"));
+    }
+
+    @Test
+    void write_RolledBack_LeavesAvailableLimitUntouched() {
+        transactionTemplate.executeWithoutResult(status -> {
+            write(new LedgerEntry(account.getAccountId(), purchase, -8000L));
+            status.setRollbackOnly();
+        });
+
+        assertAvailable("100.00");
+        // Would be declined had the rolled-back debit stayed in the cache
+        transactionTemplate.executeWithoutResult(status -> write(new LedgerEntry(account.getAccountId(), purchase, -8000L)));
+        assertAvailable("20.00");
+    }
+
+    @Test
+    void installments_TakeWholePurchaseOffUntilPosted() {
+        transactionTemplate.executeWithoutResult(status ->
+                write(new LedgerEntry(account.getAccountId(), purchase, -3000L, null, null, 3, -3000L)));
+        assertAvailable("10.00");
+
+        assertThrows(TransactionDeclinedException.class, () -> transactionTemplate.executeWithoutResult(status ->
+                write(new LedgerEntry(account.getAccountId(), purchase, -2000L))));
+
+        // Posting an installment moves it from outstanding to the balance, which leaves the available amount as is.
+        // InstallmentProcessor posts it without authorization
+        transactionTemplate.executeWithoutResult(status ->
+                ledgerWriter.write(List.of(LedgerEntry.scheduledInstallment(account.getAccountId(), purchase, -3000L))));
+        assertAvailable("10.00");
+    }
+
+    private void write(LedgerEntry entry) {
+        accountLimitService.authorization(List.of(entry.getAccountId())).authorize(entry.getAccountId(), entry.getTotalCents());
+        ledgerWriter.write(List.of(entry));
+    }
+
+    private void assertAvailable(String expected) {
+        assertEquals(0, new BigDecimal(expected).compareTo(
+                accountLimitService.getLimit(account.getAccountId()).orElseThrow().getAvailableLimit()));
+    }
+}
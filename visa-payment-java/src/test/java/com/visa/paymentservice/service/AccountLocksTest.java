@@ -0,0 +1,127 @@
+package com.visa.paymentservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 16 stripes, so small account ids share a stripe exactly when they are equal modulo 16
+@SpringBootTest(properties = {
+        "payment.account-locks.stripes=16",
+        "payment.account-locks.timeout=5s"
+})
+@ActiveProfiles("test")
+class AccountLocksTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 2000;
+    private static final int ACCOUNTS = 64;
+
+    @Autowired
+    private AccountLocks accountLocks;
+
+    @Test
+    void lock_AccountsOnSameStripe_ShareLock() {
+        assertSame(stripeOf(1L), stripeOf(1L));
+        assertSame(stripeOf(1L), stripeOf(17L));
+        assertNotSame(stripeOf(1L), stripeOf(2L));
+
+        Set<ReentrantLock> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (long accountId = 0; accountId < 1000; accountId++) {
+            distinct.add(stripeOf(accountId));
+        }
+        assertEquals(16, distinct.size());
+    }
+
+    @Test
+    void lockAll_TakesEachStripeOnceInAscendingOrder() {
+        // 35, 3 and 19 share stripe 3; 18 is on stripe 2
+        List<ReentrantLock> held = accountLocks.lockAll(List.of(35L, 3L, 18L, 19L));
+        try {
+            assertEquals(2, held.size());
+            assertSame(stripeOf(18L), held.get(0));
+            assertSame(stripeOf(3L), held.get(1));
+            for (ReentrantLock lock : held) {
+                assertTrue(lock.isHeldByCurrentThread());
+                assertEquals(1, lock.getHoldCount());
+            }
+        } finally {
+            accountLocks.unlock(held);
+        }
+        for (ReentrantLock lock : held) {
+            assertFalse(lock.isLocked());
+        }
+    }
+
+    @Test
+    void lockAll_OverlappingBatchesFromManyThreads_NeitherDeadlockNorOverlap() throws Exception {
+        // Plain ints: a lost update would show that two holders of the same stripe ran at once
+        int[] balances = new int[ACCOUNTS];
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long seed = t;
+                workers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        // A random batch in random order, so threads keep asking for the same stripes in different orders
+                        List<Long> batch = new ArrayList<>();
+                        for (int i = 0; i < 6; i++) {
+                            batch.add((long) random.nextInt(ACCOUNTS));
+                        }
+                        List<ReentrantLock> held = accountLocks.lockAll(batch);
+                        try {
+                            for (Long accountId : batch) {
+                                balances[accountId.intValue()]++;
+                            }
+                        } finally {
+                            accountLocks.unlock(held);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            // A deadlock would surface as the lock timeout rejecting a batch, or as a worker that never returns
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int total = 0;
+        for (int balance : balances) {
+            total += balance;
+        }
+        assertEquals(THREADS * ROUNDS * 6, total);
+    }
+
+    private ReentrantLock stripeOf(Long accountId) {
+        ReentrantLock lock = accountLocks.lock(accountId);
+        lock.unlock();
+        return lock;
+    }
+}
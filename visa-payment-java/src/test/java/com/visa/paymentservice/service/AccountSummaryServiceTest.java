@@ -0,0 +1,96 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.dto.AccountRequest;
+import com.visa.paymentservice.dto.AccountSummaryResponse;
+import com.visa.paymentservice.dto.DailySummaryResponse;
+import com.visa.paymentservice.model.OperationType;
+import com.visa.paymentservice.repository.OperationTypeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Not @Transactional: the two writers commit on their own threads. A database of its own keeps the rows out of the
+// other tests. Limits are disabled, so nothing but the balance row lock orders the writers
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:summarytest",
+        "payment.limits.enabled=false"
+})
+@ActiveProfiles("test")
+class AccountSummaryServiceTest {
+
+    @Autowired
+    private AccountSummaryService accountSummaryService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private LedgerWriter ledgerWriter;
+
+    @Autowired
+    private OperationTypeRepository operationTypeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void record_ConcurrentFirstWrites_BothCountedInOneRow() throws Exception {
+        Long accountId = accountService.createAccount(new AccountRequest("66677788899")).getAccountId();
+        OperationType payment = operationTypeRepository.save(new OperationType("Payment"));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try {
+            // Writers of two instances: they share only the database, not the account lock
+            Future<?> first = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                ledgerWriter.write(List.of(new LedgerEntry(accountId, payment, 1000L)));
+                written.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            assertTrue(written.await(10, TimeUnit.SECONDS));
+
+            Future<?> second = executor.submit(() -> transactionTemplate.executeWithoutResult(status ->
+                    ledgerWriter.write(List.of(new LedgerEntry(accountId, payment, 2000L)))));
+            // The second waits on the balance row instead of inserting a rollup row of its own
+            Thread.sleep(300);
+            assertFalse(second.isDone());
+            commit.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+
+        AccountSummaryResponse summary = accountSummaryService.getSummary(accountId, null, null).orElseThrow();
+        assertEquals(1, summary.getDays().size());
+        DailySummaryResponse day = summary.getDays().get(0);
+        assertEquals(2, day.getTransactionCount());
+        assertEquals(0, new BigDecimal("30.00").compareTo(day.getAmount()));
+        assertEquals(0, new BigDecimal("30.00").compareTo(balanceService.getBalance(accountId).orElseThrow().getBalance()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.model.Account;
+import com.visa.paymentservice.model.OperationType;
+import com.visa.paymentservice.repository.AccountRepository;
+import com.visa.paymentservice.repository.OperationTypeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Not @Transactional: the writer and the rebuild commit on their own threads. A database of its own keeps the
+// rows out of the other tests
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:balancetest")
+@ActiveProfiles("test")
+class BalanceServiceTest {
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private LedgerWriter ledgerWriter;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private OperationTypeRepository operationTypeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void rebuild_WhileWriteIsUncommitted_WaitsAndCountsIt() throws Exception {
+        Account account = accountRepository.save(new Account("44455566677"));
+        OperationType payment = operationTypeRepository.save(new OperationType("Payment"));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status ->
+                ledgerWriter.write(List.of(new LedgerEntry(account.getAccountId(), payment, 10000L))));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try {
+            // A writer of another instance: it shares only the database with the rebuild, not the account lock
+            Future<?> writer = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                ledgerWriter.write(List.of(new LedgerEntry(account.getAccountId(), payment, 2500L)));
+                written.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            assertTrue(written.await(10, TimeUnit.SECONDS));
+
+            Future<?> rebuild = executor.submit(() -> balanceService.rebuild(account.getAccountId()));
+            // The rebuild must wait for the write rather than sum without it
+            Thread.sleep(300);
+            assertFalse(rebuild.isDone());
+            commit.countDown();
+            writer.get(10, TimeUnit.SECONDS);
+            rebuild.get(10, TimeUnit.SECONDS);
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, new BigDecimal("125.00").compareTo(
+                balanceService.getBalance(account.getAccountId()).orElseThrow().getBalance()));
+    }
+}
@@ -0,0 +1,136 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.dto.TransactionResponse;
+import com.visa.paymentservice.model.Account;
+import com.visa.paymentservice.model.OperationType;
+import com.visa.paymentservice.repository.AccountRepository;
+import com.visa.paymentservice.repository.OperationTypeRepository;
+import com.visa.paymentservice.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Not @Transactional: the flusher commits on its own thread. A wide max-wait makes entries submitted together
+// land in one group, and a database of its own keeps the committed rows out of the other tests
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:groupcommittest",
+        "payment.ledger.write-behind.enabled=true",
+        "payment.ledger.write-behind.max-wait=500ms",
+        "payment.ledger.write-behind.offer-timeout=1s"
+})
+@ActiveProfiles("test")
+class GroupCommitLedgerTest {
+
+    @Autowired
+    private GroupCommitLedger groupCommitLedger;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private OperationTypeRepository operationTypeRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void submit_ConcurrentEntries_CommittedTogether() throws Exception {
+        Account account = accountRepository.save(new Account("11122233344"));
+        OperationType payment = operationTypeRepository.save(new OperationType("Payment"));
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            entries.add(new LedgerEntry(account.getAccountId(), payment, 100L * (i + 1)));
+        }
+        long groupsBefore = meterRegistry.timer("payment.ledger.group.commit").count();
+        long rowsBefore = transactionRepository.count();
+
+        List<Future<TransactionResponse>> results = submitTogether(entries);
+
+        Set<Long> transactionIds = new HashSet<>();
+        for (Future<TransactionResponse> result : results) {
+            TransactionResponse response = result.get(10, TimeUnit.SECONDS);
+            assertNotNull(response.getTransactionId());
+            transactionIds.add(response.getTransactionId());
+        }
+        assertEquals(8, transactionIds.size());
+        assertEquals(rowsBefore + 8, transactionRepository.count());
+        // Eight entries, fewer commits: at least two of them shared a group
+        long groups = meterRegistry.timer("payment.ledger.group.commit").count() - groupsBefore;
+        assertTrue(groups < 8, "Expected shared group commits but saw " + groups + " commits for 8 entries");
+    }
+
+    @Test
+    void submit_GroupFails_EntriesRetriedIndividually() throws Exception {
+        Account account = accountRepository.save(new Account("55566677788"));
+        OperationType payment = operationTypeRepository.save(new OperationType("Payment"));
+        // Both entries carry the same idempotency key, so a group holding both cannot commit. Retried one by one,
+        // the first of them is written and only the second fails; the entry without a key is written either way
+        List<LedgerEntry> entries = List.of(
+                new LedgerEntry(account.getAccountId(), payment, 100L, "same-key", "hash", 1, 0),
+                new LedgerEntry(account.getAccountId(), payment, 200L, "same-key", "hash", 1, 0),
+                new LedgerEntry(account.getAccountId(), payment, 300L));
+        long rowsBefore = transactionRepository.count();
+
+        List<Future<TransactionResponse>> results = submitTogether(entries);
+
+        int written = 0;
+        int failed = 0;
+        for (Future<TransactionResponse> result : results) {
+            try {
+                assertNotNull(result.get(10, TimeUnit.SECONDS).getTransactionId());
+                written++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(RuntimeException.class, e.getCause());
+                failed++;
+            }
+        }
+        assertEquals(2, written);
+        assertEquals(1, failed);
+        assertEquals(rowsBefore + 2, transactionRepository.count());
+        assertNotNull(results.get(2).get().getTransactionId());
+    }
+
+    // Releases all submitters at once so their entries reach the queue within one max-wait window
+    private List<Future<TransactionResponse>> submitTogether(List<LedgerEntry> entries) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(entries.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<TransactionResponse>> results = new ArrayList<>();
+            for (LedgerEntry entry : entries) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return groupCommitLedger.submit(entry);
+                }));
+            }
+            start.countDown();
+            return results;
+        } finally {
+            executor.shutdown();
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                fail("Submitters did not finish");
+            }
+        }
+    }
+}
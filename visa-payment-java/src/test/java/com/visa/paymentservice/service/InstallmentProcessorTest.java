@@ -0,0 +1,63 @@
+package com.visa.paymentservice.service;
+
+import com.visa.paymentservice.dto.AccountRequest;
+import com.visa.paymentservice.model.InstallmentSchedule;
+import com.visa.paymentservice.model.OperationCategory;
+import com.visa.paymentservice.model.OperationType;
+import com.visa.paymentservice.repository.InstallmentScheduleRepository;
+import com.visa.paymentservice.repository.OperationTypeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Not @Transactional: each page commits in a transaction of its own. A database of its own keeps the rows out of the
+// other tests. One schedule per page, so the unknown one fills the first page by itself
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:installmenttest",
+        "payment.installments.batch-size=1"
+})
+@ActiveProfiles("test")
+class InstallmentProcessorTest {
+
+    @Autowired
+    private InstallmentProcessor installmentProcessor;
+
+    @Autowired
+    private InstallmentScheduleRepository installmentScheduleRepository;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private OperationTypeRepository operationTypeRepository;
+
+    @Test
+    void postDueInstallments_UnknownOperationTypeAhead_DefersItAndPostsTheRest() {
+        LocalDate today = LocalDate.now();
+        Long accountId = accountService.createAccount(new AccountRequest("77788899900")).getAccountId();
+        OperationType installmentPurchase = operationTypeRepository.save(
+                new OperationType("Purchase with installments", OperationCategory.DEBIT, true));
+        // Due yesterday, so it comes first
+        InstallmentSchedule unknown = installmentScheduleRepository.save(
+                new InstallmentSchedule(1L, accountId, 999999L, -1000L, 3, today.minusMonths(1).minusDays(1)));
+        InstallmentSchedule valid = installmentScheduleRepository.save(
+                new InstallmentSchedule(2L, accountId, installmentPurchase.getOperationTypeId(), -2500L, 3, today.minusMonths(1)));
+
+        installmentProcessor.postDueInstallments();
+
+        InstallmentSchedule deferred = installmentScheduleRepository.findById(unknown.getScheduleId()).orElseThrow();
+        assertEquals(1, deferred.getInstallmentsPosted());
+        assertEquals(today.plusDays(1), deferred.getNextDueDate());
+        assertEquals(2, installmentScheduleRepository.findById(valid.getScheduleId()).orElseThrow().getInstallmentsPosted());
+        assertEquals(0, new BigDecimal("-25.00").compareTo(balanceService.getBalance(accountId).orElseThrow().getBalance()));
+    }
+}
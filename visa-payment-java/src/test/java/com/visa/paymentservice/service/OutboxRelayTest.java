@@ -0,0 +1,108 @@
+package com.visa.paymentservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.visa.paymentservice.dto.TransactionEvent;
+import com.visa.paymentservice.dto.TransactionRequest;
+import com.visa.paymentservice.model.Account;
+import com.visa.paymentservice.model.OperationType;
+import com.visa.paymentservice.model.OutboxEvent;
+import com.visa.paymentservice.repository.AccountRepository;
+import com.visa.paymentservice.repository.OperationTypeRepository;
+import com.visa.paymentservice.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Not @Transactional: the relay only sees committed rows. A database of its own keeps them out of the other tests
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outboxtest",
+        "payment.outbox.enabled=true",
+        "payment.outbox.sink=memory",
+        "payment.outbox.poll-interval=PT0.05S"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private OperationTypeRepository operationTypeRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private InMemoryOutboxSink outboxSink;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void relay_CommittedTransaction_ReachesSinkAndIsDeleted() throws Exception {
+        Account account = accountRepository.save(new Account("55544433322"));
+        OperationType normalPurchase = operationTypeRepository.save(new OperationType("Normal Purchase"));
+        TransactionRequest request = new TransactionRequest(
+                account.getAccountId(),
+                normalPurchase.getOperationTypeId(),
+                new BigDecimal("25.00")
+        );
+
+        String response = mockMvc.perform(post("/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long transactionId = objectMapper.readTree(response).get("transactionId").asLong();
+
+        TransactionEvent event = outboxSink.poll(Duration.ofSeconds(10));
+        assertNotNull(event, "No event reached the sink");
+        assertEquals(transactionId, event.getTransactionId());
+        assertEquals(account.getAccountId(), event.getAccountId());
+        assertEquals(normalPurchase.getOperationTypeId(), event.getOperationTypeId());
+        assertEquals(0, new BigDecimal("-25.00").compareTo(event.getAmount()));
+
+        // A published event is deleted from the outbox, right after the sink accepted it
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (outboxEventRepository.count() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    void relay_LowerEventIdCommittedLater_PublishesInAccountSequenceOrder() throws Exception {
+        // What two writing instances with their own id blocks can leave behind: the account's later event holds
+        // the lower id. Saved in one transaction, so the relay sees both at once
+        LocalDateTime eventDate = LocalDateTime.now();
+        outboxEventRepository.saveAll(List.of(
+                new OutboxEvent(2, 1002L, 9001L, 1L, -200L, eventDate),
+                new OutboxEvent(1, 1001L, 9001L, 1L, -100L, eventDate)));
+
+        TransactionEvent first = outboxSink.poll(Duration.ofSeconds(10));
+        TransactionEvent second = outboxSink.poll(Duration.ofSeconds(10));
+        assertNotNull(second, "Not every event reached the sink");
+        assertEquals(1001L, first.getTransactionId());
+        assertEquals(1, first.getAccountSequence());
+        assertEquals(1002L, second.getTransactionId());
+        assertEquals(2, second.getAccountSequence());
+    }
+}
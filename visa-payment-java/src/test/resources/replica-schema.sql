@@ -0,0 +1,15 @@
+-- Schema of the replica in ReplicaRoutingTest. Runs on every new replica connection, so it must be repeatable
+create table if not exists operation_types (
+    operation_type_id bigint primary key,
+    description varchar(255) not null,
+    category varchar(16) not null,
+    installments_allowed boolean default false not null
+);
+
+create table if not exists accounts (
+    account_id bigint primary key,
+    document_number bigint not null
+);
+
+-- Only the replica has this account
+merge into accounts key (account_id) values (4242, 99988877766);
@@ -0,0 +1,14 @@
+package com.visa.paymentservice.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@SpringBootApplication
+@EnableScheduling
+public class PaymentReactiveApplication {
+    
+    public static void main(String[] args) {
+        SpringApplication.run(PaymentReactiveApplication.class, args);
+    }
+}
@@ -0,0 +1,70 @@
+package com.visa.paymentservice.reactive.controller;
+
+import com.visa.paymentservice.dto.AccountRequest;
+import com.visa.paymentservice.dto.AccountResponse;
+import com.visa.paymentservice.dto.BalanceResponse;
+import com.visa.paymentservice.dto.TransactionPageResponse;
+import com.visa.paymentservice.reactive.service.ReactiveAccountService;
+import com.visa.paymentservice.reactive.service.ReactiveTransactionService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// Same contract as AccountController in the servlet service, without import, export, balance rebuild and limits
+@RestController
+@RequestMapping("/accounts")
+public class ReactiveAccountController {
+    
+    @Autowired
+    private ReactiveAccountService accountService;
+    
+    @Autowired
+    private ReactiveTransactionService transactionService;
+    
+    @PostMapping
+    public Mono<ResponseEntity<AccountResponse>> createAccount(@Valid @RequestBody AccountRequest request) {
+        return accountService.createAccount(request)
+                .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response))
+                .onErrorReturn(IllegalArgumentException.class, ResponseEntity.badRequest().build());
+    }
+    
+    @GetMapping("/{accountId}")
+    public Mono<ResponseEntity<AccountResponse>> getAccount(@PathVariable Long accountId) {
+        return accountService.getAccount(accountId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping(params = "documentNumber")
+    public Mono<ResponseEntity<AccountResponse>> getAccountByDocumentNumber(@RequestParam String documentNumber) {
+        return accountService.findByDocumentNumber(documentNumber)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorReturn(IllegalArgumentException.class, ResponseEntity.badRequest().build());
+    }
+    
+    @GetMapping("/{accountId}/balance")
+    public Mono<ResponseEntity<BalanceResponse>> getBalance(@PathVariable Long accountId) {
+        return accountService.getBalance(accountId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/{accountId}/transactions")
+    public Mono<ResponseEntity<TransactionPageResponse>> getTransactions(@PathVariable Long accountId,
+                                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                                         @RequestParam(required = false) String cursor,
+                                                                         @RequestParam(defaultValue = "100") int limit) {
+        return transactionService.getTransactionPage(accountId, from, to, cursor, limit)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorReturn(IllegalArgumentException.class, ResponseEntity.badRequest().build());
+    }
+}
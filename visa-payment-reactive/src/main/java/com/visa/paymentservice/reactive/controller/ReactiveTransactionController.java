@@ -0,0 +1,46 @@
+package com.visa.paymentservice.reactive.controller;
+
+import com.visa.paymentservice.dto.TransactionBatchRequest;
+import com.visa.paymentservice.dto.TransactionBatchResult;
+import com.visa.paymentservice.dto.TransactionDeclineResponse;
+import com.visa.paymentservice.dto.TransactionRequest;
+import com.visa.paymentservice.dto.TransactionResponse;
+import com.visa.paymentservice.model.Money;
+import com.visa.paymentservice.reactive.service.ReactiveTransactionService;
+import com.visa.paymentservice.service.TransactionDeclinedException;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Same contract as TransactionController in the servlet service, without Idempotency-Key support
+@RestController
+@RequestMapping("/transactions")
+public class ReactiveTransactionController {
+    
+    @Autowired
+    private ReactiveTransactionService transactionService;
+    
+    @PostMapping
+    public Mono<ResponseEntity<TransactionResponse>> createTransaction(@Valid @RequestBody TransactionRequest request) {
+        return transactionService.createTransaction(request)
+                .map(transaction -> ResponseEntity.status(HttpStatus.CREATED).body(transaction))
+                .onErrorReturn(IllegalArgumentException.class, ResponseEntity.badRequest().build());
+    }
+    
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<List<TransactionBatchResult>>> createTransactions(@Valid @RequestBody TransactionBatchRequest request) {
+        return transactionService.createTransactions(request.getTransactions())
+                .map(results -> ResponseEntity.status(HttpStatus.CREATED).body(results));
+    }
+    
+    @ExceptionHandler(TransactionDeclinedException.class)
+    public ResponseEntity<TransactionDeclineResponse> declined(TransactionDeclinedException e) {
+        return ResponseEntity.unprocessableEntity().body(new TransactionDeclineResponse(e.getAccountId(), e.getReason(),
+                Money.toDecimal(e.getAvailableCents())));
+    }
+}
@@ -0,0 +1,40 @@
+package com.visa.paymentservice.reactive.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// Adds a transaction to its daily_rollups row, the same statements AccountSummaryService.record runs in the servlet
+// service. Callers hold the account's balance row lock until commit, so the update-or-insert cannot race
+@Component
+public class DailyRollupWriter {
+    
+    private static final String UPDATE_ROLLUP = "update daily_rollups set transaction_count = transaction_count + 1, " +
+            "amount_cents = amount_cents + :amountCents " +
+            "where account_id = :accountId and rollup_date = :rollupDate and operation_type_id = :operationTypeId";
+    private static final String INSERT_ROLLUP = "insert into daily_rollups " +
+            "(account_id, rollup_date, operation_type_id, transaction_count, amount_cents) " +
+            "values (:accountId, :rollupDate, :operationTypeId, 1, :amountCents)";
+    
+    @Autowired
+    private DatabaseClient databaseClient;
+    
+    public Mono<Void> add(Long accountId, Long operationTypeId, long amountCents, LocalDateTime eventDate) {
+        return databaseClient.sql(UPDATE_ROLLUP)
+                .bind("amountCents", amountCents)
+                .bind("accountId", accountId)
+                .bind("rollupDate", eventDate.toLocalDate())
+                .bind("operationTypeId", operationTypeId)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated > 0 ? Mono.<Void>empty() : databaseClient.sql(INSERT_ROLLUP)
+                        .bind("accountId", accountId)
+                        .bind("rollupDate", eventDate.toLocalDate())
+                        .bind("operationTypeId", operationTypeId)
+                        .bind("amountCents", amountCents)
+                        .then());
+    }
+}
@@ -0,0 +1,36 @@
+package com.visa.paymentservice.reactive.service;
+
+import com.visa.paymentservice.model.OperationCategory;
+import com.visa.paymentservice.model.OperationType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Operation types never change at runtime, so they are read once on first use and kept in memory
+@Component
+public class OperationTypeCache {
+    
+    private final Mono<Map<Long, OperationType>> operationTypes;
+    
+    @Autowired
+    public OperationTypeCache(DatabaseClient databaseClient) {
+        this.operationTypes = databaseClient.sql("select operation_type_id, description, category, installments_allowed from operation_types")
+                .map(row -> {
+                    OperationType operationType = new OperationType(row.get("description", String.class),
+                            OperationCategory.valueOf(row.get("category", String.class)),
+                            row.get("installments_allowed", Boolean.class));
+                    operationType.setOperationTypeId(row.get("operation_type_id", Long.class));
+                    return operationType;
+                })
+                .all()
+                .collectMap(OperationType::getOperationTypeId)
+                .cache();
+    }
+    
+    public Mono<OperationType> find(Long operationTypeId) {
+        return operationTypes.mapNotNull(types -> types.get(operationTypeId));
+    }
+}
@@ -0,0 +1,98 @@
+package com.visa.paymentservice.reactive.service;
+
+import com.visa.paymentservice.dto.AccountRequest;
+import com.visa.paymentservice.dto.AccountResponse;
+import com.visa.paymentservice.dto.BalanceResponse;
+import com.visa.paymentservice.model.Account;
+import com.visa.paymentservice.model.Money;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Service
+public class ReactiveAccountService {
+    
+    private static final String DOCUMENT_NUMBER_FORMAT = "%011d";
+    private static final String INSERT_ACCOUNT = "insert into accounts (document_number) values (:documentNumber)";
+    private static final String INSERT_BALANCE = "insert into account_balances (account_id, balance_cents, updated_at) " +
+            "values (:accountId, 0, :updatedAt)";
+    private static final String SELECT_BY_ID = "select account_id, document_number from accounts where account_id = :accountId";
+    private static final String SELECT_BY_DOCUMENT = "select account_id, document_number from accounts where document_number = :documentNumber";
+    private static final String SELECT_BALANCE = "select balance_cents from account_balances where account_id = :accountId";
+    
+    @Autowired
+    private DatabaseClient databaseClient;
+    
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+    
+    private TransactionalOperator transactionalOperator;
+    
+    @PostConstruct
+    void init() {
+        transactionalOperator = TransactionalOperator.create(transactionManager);
+    }
+    
+    public Mono<AccountResponse> createAccount(AccountRequest request) {
+        return Mono.fromCallable(() -> Account.toDocumentKey(request.getDocumentNumber()))
+                .flatMap(documentKey -> databaseClient.sql(INSERT_ACCOUNT)
+                        .bind("documentNumber", documentKey)
+                        .filter(statement -> statement.returnGeneratedValues("account_id"))
+                        .map(row -> row.get("account_id", Long.class))
+                        .one()
+                        .flatMap(accountId -> databaseClient.sql(INSERT_BALANCE)
+                                .bind("accountId", accountId)
+                                .bind("updatedAt", LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
+                                .then()
+                                .thenReturn(new AccountResponse(accountId, request.getDocumentNumber())))
+                        .as(transactionalOperator::transactional))
+                // The unique index on document_number rejects duplicates, so no lookup is needed before the insert
+                .onErrorMap(DataIntegrityViolationException.class, e -> new IllegalArgumentException(
+                        "Account with document number " + request.getDocumentNumber() + " already exists", e));
+    }
+    
+    public Mono<AccountResponse> getAccount(Long accountId) {
+        return databaseClient.sql(SELECT_BY_ID)
+                .bind("accountId", accountId)
+                .map(ReactiveAccountService::toResponse)
+                .one();
+    }
+    
+    public Mono<AccountResponse> findByDocumentNumber(String documentNumber) {
+        return Mono.fromCallable(() -> Account.toDocumentKey(documentNumber))
+                .flatMap(documentKey -> databaseClient.sql(SELECT_BY_DOCUMENT)
+                        .bind("documentNumber", documentKey)
+                        .map(ReactiveAccountService::toResponse)
+                        .one());
+    }
+    
+    public Mono<BalanceResponse> getBalance(Long accountId) {
+        return databaseClient.sql(SELECT_BALANCE)
+                .bind("accountId", accountId)
+                .map(row -> new BalanceResponse(accountId, Money.toDecimal(row.get("balance_cents", Long.class))))
+                .one();
+    }
+    
+    public Mono<Boolean> exists(Long accountId) {
+        return databaseClient.sql("select 1 from accounts where account_id = :accountId")
+                .bind("accountId", accountId)
+                .map(row -> Boolean.TRUE)
+                .one()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+    
+    private static AccountResponse toResponse(Readable row) {
+        // Stored as a number, like Account does, so leading zeros are restored here
+        return new AccountResponse(row.get("account_id", Long.class),
+                String.format(DOCUMENT_NUMBER_FORMAT, row.get("document_number", Long.class)));
+    }
+}
@@ -0,0 +1,145 @@
+package com.visa.paymentservice.reactive.service;
+
+import com.visa.paymentservice.model.InstallmentSchedule;
+import com.visa.paymentservice.model.TransactionBucket;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+// Posts the installments that have fallen due, like InstallmentProcessor in the servlet service. Each schedule is
+// posted in its own database transaction under the balance row lock. Enable it on a single instance
+@Component
+@ConditionalOnProperty(name = "payment.installments.processor-enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveInstallmentProcessor {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReactiveInstallmentProcessor.class);
+    
+    private static final String SELECT_DUE_IDS = "select schedule_id from installment_schedules " +
+            "where next_due_date <= :today order by next_due_date, schedule_id limit :limit";
+    private static final String LOCK_BALANCE = "select balance_cents from account_balances where account_id = " +
+            "(select account_id from installment_schedules where schedule_id = :scheduleId) for update";
+    // Read again after the lock, so a schedule posted in the meantime is skipped
+    private static final String SELECT_DUE = "select * from installment_schedules where schedule_id = :scheduleId " +
+            "and next_due_date <= :today";
+    private static final String INSERT_TRANSACTION = "insert into transactions " +
+            "(transaction_id, account_id, operation_type_id, amount_cents, event_date, bucket) " +
+            "values (:transactionId, :accountId, :operationTypeId, :amountCents, :eventDate, :bucket)";
+    // The installment moves from outstanding to the balance
+    private static final String UPDATE_BALANCE = "update account_balances set balance_cents = balance_cents + :deltaCents, " +
+            "outstanding_installment_cents = outstanding_installment_cents - :deltaCents, " +
+            "updated_at = :updatedAt where account_id = :accountId";
+    private static final String UPDATE_SCHEDULE = "update installment_schedules set installments_posted = :installmentsPosted, " +
+            "next_due_date = :nextDueDate where schedule_id = :scheduleId";
+    
+    @Autowired
+    private DatabaseClient databaseClient;
+    
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+    
+    @Autowired
+    private DailyRollupWriter dailyRollupWriter;
+    
+    @Value("${payment.installments.batch-size:500}")
+    private int batchSize;
+    
+    private TransactionalOperator transactionalOperator;
+    private SequenceAllocator transactionIds;
+    
+    @PostConstruct
+    void init() {
+        transactionalOperator = TransactionalOperator.create(transactionManager);
+        transactionIds = new SequenceAllocator(databaseClient, "transactions_seq");
+    }
+    
+    // Scheduled methods run on the scheduler thread, which is not an event loop, so blocking for the result is fine
+    @Scheduled(cron = "${payment.installments.cron:0 15 0 * * *}")
+    public void postDueInstallments() {
+        LocalDate today = LocalDate.now();
+        // A schedule that missed several runs is still due after one posting, so keep going until nothing is left
+        long total = postBatch(today)
+                .expand(posted -> posted > 0 ? postBatch(today) : Mono.empty())
+                .reduce(0L, Long::sum)
+                .block();
+        log.info("Posted {} due installments", total);
+    }
+    
+    Mono<Long> postBatch(LocalDate today) {
+        return databaseClient.sql(SELECT_DUE_IDS)
+                .bind("today", today)
+                .bind("limit", batchSize)
+                .map(row -> row.get("schedule_id", Long.class))
+                .all()
+                .concatMap(scheduleId -> post(scheduleId, today).as(transactionalOperator::transactional))
+                .count();
+    }
+    
+    private Mono<Long> post(Long scheduleId, LocalDate today) {
+        return databaseClient.sql(LOCK_BALANCE)
+                .bind("scheduleId", scheduleId)
+                .then()
+                .then(databaseClient.sql(SELECT_DUE)
+                        .bind("scheduleId", scheduleId)
+                        .bind("today", today)
+                        .map(ReactiveInstallmentProcessor::toSchedule)
+                        .one())
+                .flatMap(schedule -> transactionIds.nextId().flatMap(transactionId -> {
+                    LocalDateTime eventDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+                    schedule.markPosted();
+                    return Flux.concat(
+                                    databaseClient.sql(INSERT_TRANSACTION)
+                                            .bind("transactionId", transactionId)
+                                            .bind("accountId", schedule.getAccountId())
+                                            .bind("operationTypeId", schedule.getOperationTypeId())
+                                            .bind("amountCents", schedule.getInstallmentCents())
+                                            .bind("eventDate", eventDate)
+                                            .bind("bucket", TransactionBucket.of(eventDate))
+                                            .then(),
+                                    databaseClient.sql(UPDATE_BALANCE)
+                                            .bind("deltaCents", schedule.getInstallmentCents())
+                                            .bind("updatedAt", eventDate)
+                                            .bind("accountId", schedule.getAccountId())
+                                            .then(),
+                                    dailyRollupWriter.add(schedule.getAccountId(), schedule.getOperationTypeId(),
+                                            schedule.getInstallmentCents(), eventDate),
+                                    bindNextDueDate(databaseClient.sql(UPDATE_SCHEDULE), schedule.getNextDueDate())
+                                            .bind("installmentsPosted", schedule.getInstallmentsPosted())
+                                            .bind("scheduleId", scheduleId)
+                                            .then())
+                            .then(Mono.just(transactionId));
+                }));
+    }
+    
+    private static DatabaseClient.GenericExecuteSpec bindNextDueDate(DatabaseClient.GenericExecuteSpec spec, LocalDate nextDueDate) {
+        return nextDueDate != null ? spec.bind("nextDueDate", nextDueDate) : spec.bindNull("nextDueDate", LocalDate.class);
+    }
+    
+    private static InstallmentSchedule toSchedule(Readable row) {
+        InstallmentSchedule schedule = new InstallmentSchedule();
+        schedule.setScheduleId(row.get("schedule_id", Long.class));
+        schedule.setPurchaseTransactionId(row.get("purchase_transaction_id", Long.class));
+        schedule.setAccountId(row.get("account_id", Long.class));
+        schedule.setOperationTypeId(row.get("operation_type_id", Long.class));
+        schedule.setInstallmentCents(row.get("installment_cents", Long.class));
+        schedule.setInstallmentCount(row.get("installment_count", Integer.class));
+        schedule.setInstallmentsPosted(row.get("installments_posted", Integer.class));
+        schedule.setPurchaseDate(row.get("purchase_date", LocalDate.class));
+        schedule.setNextDueDate(row.get("next_due_date", LocalDate.class));
+        return schedule;
+    }
+}
@@ -0,0 +1,220 @@
+package com.visa.paymentservice.reactive.service;
+
+import com.visa.paymentservice.dto.TransactionBatchResult;
+import com.visa.paymentservice.dto.TransactionPageResponse;
+import com.visa.paymentservice.dto.TransactionRequest;
+import com.visa.paymentservice.dto.TransactionResponse;
+import com.visa.paymentservice.model.DeclineReason;
+import com.visa.paymentservice.model.Money;
+import com.visa.paymentservice.model.TransactionBucket;
+import com.visa.paymentservice.service.LedgerEntry;
+import com.visa.paymentservice.service.TransactionCursor;
+import com.visa.paymentservice.service.TransactionDeclinedException;
+import com.visa.paymentservice.service.TransactionRules;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+// Same rules as the servlet TransactionService. Writes to one account are serialized by locking its balance row
+// for the length of the database transaction, so no thread waits on an in-memory lock
+@Service
+public class ReactiveTransactionService {
+    
+    // Bounds of an open history range
+    private static final LocalDateTime EARLIEST_EVENT_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST_EVENT_DATE = LocalDateTime.of(9999, 12, 1, 0, 0);
+    
+    // Installments scheduled but not yet posted count against the limit, like in AccountLimitService
+    private static final String LOCK_BALANCE = "select balance_cents + outstanding_installment_cents as committed_cents " +
+            "from account_balances where account_id = :accountId for update";
+    private static final String SELECT_CREDIT_LIMIT = "select credit_limit_cents from account_limits where account_id = :accountId";
+    private static final String INSERT_TRANSACTION = "insert into transactions " +
+            "(transaction_id, account_id, operation_type_id, amount_cents, event_date, bucket) " +
+            "values (:transactionId, :accountId, :operationTypeId, :amountCents, :eventDate, :bucket)";
+    private static final String UPDATE_BALANCE = "update account_balances set balance_cents = balance_cents + :deltaCents, " +
+            "outstanding_installment_cents = outstanding_installment_cents + :outstandingDeltaCents, " +
+            "updated_at = :updatedAt where account_id = :accountId";
+    private static final String INSERT_SCHEDULE = "insert into installment_schedules " +
+            "(schedule_id, purchase_transaction_id, account_id, operation_type_id, installment_cents, installment_count, " +
+            "installments_posted, purchase_date, next_due_date) " +
+            "values (:scheduleId, :purchaseTransactionId, :accountId, :operationTypeId, :installmentCents, :installmentCount, " +
+            "1, :purchaseDate, :nextDueDate)";
+    private static final String SELECT_FIRST_PAGE = "select transaction_id, account_id, operation_type_id, amount_cents, event_date " +
+            "from transactions where account_id = :accountId " +
+            "and event_date >= :from and event_date < :to " +
+            "order by event_date, transaction_id limit :limit";
+    private static final String SELECT_PAGE_AFTER = "select transaction_id, account_id, operation_type_id, amount_cents, event_date " +
+            "from transactions where account_id = :accountId " +
+            "and event_date >= :from and event_date < :to " +
+            "and (event_date > :afterEventDate or (event_date = :afterEventDate and transaction_id > :afterTransactionId)) " +
+            "order by event_date, transaction_id limit :limit";
+    
+    @Autowired
+    private DatabaseClient databaseClient;
+    
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+    
+    @Autowired
+    private ReactiveAccountService accountService;
+    
+    @Autowired
+    private OperationTypeCache operationTypeCache;
+    
+    @Autowired
+    private DailyRollupWriter dailyRollupWriter;
+    
+    @Value("${payment.limits.default-credit-limit:10000.00}")
+    private BigDecimal defaultCreditLimit;
+    
+    @Value("${payment.history.max-page-size:1000}")
+    private int maxPageSize;
+    
+    private TransactionalOperator transactionalOperator;
+    private SequenceAllocator transactionIds;
+    private SequenceAllocator scheduleIds;
+    private long defaultCreditLimitCents;
+    
+    @PostConstruct
+    void init() {
+        transactionalOperator = TransactionalOperator.create(transactionManager);
+        transactionIds = new SequenceAllocator(databaseClient, "transactions_seq");
+        scheduleIds = new SequenceAllocator(databaseClient, "installment_schedule_seq");
+        defaultCreditLimitCents = Money.toCents(defaultCreditLimit);
+    }
+    
+    public Mono<TransactionResponse> createTransaction(TransactionRequest request) {
+        return toEntry(request).flatMap(entry -> write(entry).as(transactionalOperator::transactional));
+    }
+    
+    // Every item is its own database transaction, so one declined or invalid item does not affect the others
+    public Mono<List<TransactionBatchResult>> createTransactions(List<TransactionRequest> requests) {
+        return Flux.range(0, requests.size())
+                .concatMap(i -> createTransaction(requests.get(i))
+                        .map(transaction -> new TransactionBatchResult(i, transaction.getTransactionId(), null))
+                        .onErrorResume(TransactionDeclinedException.class,
+                                e -> Mono.just(new TransactionBatchResult(i, null, "Declined: " + e.getReason())))
+                        .onErrorResume(IllegalArgumentException.class,
+                                e -> Mono.just(new TransactionBatchResult(i, null, e.getMessage()))))
+                .collectList();
+    }
+    
+    // from is inclusive and to exclusive; either may be null for an open range. Archived months are not read here
+    public Mono<TransactionPageResponse> getTransactionPage(Long accountId, LocalDateTime from, LocalDateTime to,
+                                                            String cursor, int limit) {
+        return accountService.exists(accountId).filter(Boolean::booleanValue).flatMap(exists -> {
+            if (limit < 1 || limit > maxPageSize) {
+                return Mono.error(new IllegalArgumentException("Page size must be between 1 and " + maxPageSize));
+            }
+            LocalDateTime rangeFrom = from != null ? from : EARLIEST_EVENT_DATE;
+            LocalDateTime rangeTo = to != null ? to : LATEST_EVENT_DATE;
+            if (!rangeFrom.isBefore(rangeTo)) {
+                return Mono.error(new IllegalArgumentException("from must be before to"));
+            }
+            TransactionCursor after = cursor == null || cursor.isEmpty() ? null : TransactionCursor.decode(cursor);
+            
+            DatabaseClient.GenericExecuteSpec query = databaseClient.sql(after == null ? SELECT_FIRST_PAGE : SELECT_PAGE_AFTER)
+                    .bind("accountId", accountId)
+                    .bind("from", rangeFrom)
+                    .bind("to", rangeTo)
+                    .bind("limit", limit);
+            if (after != null) {
+                query = query.bind("afterEventDate", after.getEventDate()).bind("afterTransactionId", after.getTransactionId());
+            }
+            return query.map(row -> new TransactionResponse(row.get("transaction_id", Long.class), row.get("account_id", Long.class),
+                            row.get("operation_type_id", Long.class), row.get("amount_cents", Long.class),
+                            row.get("event_date", LocalDateTime.class)))
+                    .all()
+                    .collectList()
+                    .map(transactions -> {
+                        // A short page means there is nothing left to read
+                        String nextCursor = null;
+                        if (transactions.size() == limit) {
+                            TransactionResponse last = transactions.get(transactions.size() - 1);
+                            nextCursor = new TransactionCursor(last.getEventDate(), last.getTransactionId()).encode();
+                        }
+                        return new TransactionPageResponse(transactions, nextCursor);
+                    });
+        });
+    }
+    
+    private Mono<LedgerEntry> toEntry(TransactionRequest request) {
+        return accountService.exists(request.getAccountId())
+                .flatMap(exists -> {
+                    if (!exists) {
+                        return Mono.error(new IllegalArgumentException("Account with ID " + request.getAccountId() + " not found"));
+                    }
+                    return operationTypeCache.find(request.getOperationTypeId())
+                            .switchIfEmpty(Mono.error(() -> new IllegalArgumentException(
+                                    "Operation type with ID " + request.getOperationTypeId() + " not found")));
+                })
+                .map(operationType -> TransactionRules.toEntry(request, operationType, null));
+    }
+    
+    // Must run inside a database transaction: the row lock taken first is held until it commits
+    private Mono<TransactionResponse> write(LedgerEntry entry) {
+        Long accountId = entry.getAccountId();
+        return databaseClient.sql(LOCK_BALANCE)
+                .bind("accountId", accountId)
+                .map(row -> row.get("committed_cents", Long.class))
+                .one()
+                .flatMap(committedCents -> databaseClient.sql(SELECT_CREDIT_LIMIT)
+                        .bind("accountId", accountId)
+                        .map(row -> row.get("credit_limit_cents", Long.class))
+                        .one()
+                        .defaultIfEmpty(defaultCreditLimitCents)
+                        .map(creditLimitCents -> committedCents + creditLimitCents))
+                .flatMap(available -> {
+                    if (!TransactionRules.authorizes(available, entry.getTotalCents())) {
+                        return Mono.error(new TransactionDeclinedException(accountId, DeclineReason.INSUFFICIENT_LIMIT,
+                                Math.max(available, 0)));
+                    }
+                    return transactionIds.nextId();
+                })
+                .flatMap(transactionId -> {
+                    // Truncated to what timestamp(6) stores, so the response matches what history reads return
+                    LocalDateTime eventDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+                    Long operationTypeId = entry.getOperationType().getOperationTypeId();
+                    Mono<Void> writes = databaseClient.sql(INSERT_TRANSACTION)
+                            .bind("transactionId", transactionId)
+                            .bind("accountId", accountId)
+                            .bind("operationTypeId", operationTypeId)
+                            .bind("amountCents", entry.getAmountCents())
+                            .bind("eventDate", eventDate)
+                            .bind("bucket", TransactionBucket.of(eventDate))
+                            .then()
+                            .then(databaseClient.sql(UPDATE_BALANCE)
+                                    .bind("deltaCents", entry.getAmountCents())
+                                    .bind("outstandingDeltaCents", entry.getOutstandingDeltaCents())
+                                    .bind("updatedAt", eventDate)
+                                    .bind("accountId", accountId)
+                                    .then())
+                            .then(dailyRollupWriter.add(accountId, operationTypeId, entry.getAmountCents(), eventDate));
+                    if (entry.hasInstallments()) {
+                        writes = writes.then(scheduleIds.nextId().flatMap(scheduleId -> databaseClient.sql(INSERT_SCHEDULE)
+                                .bind("scheduleId", scheduleId)
+                                .bind("purchaseTransactionId", transactionId)
+                                .bind("accountId", accountId)
+                                .bind("operationTypeId", operationTypeId)
+                                .bind("installmentCents", entry.getInstallmentCents())
+                                .bind("installmentCount", entry.getInstallmentCount())
+                                .bind("purchaseDate", eventDate.toLocalDate())
+                                .bind("nextDueDate", eventDate.toLocalDate().plusMonths(1))
+                                .then()));
+                    }
+                    return writes.thenReturn(new TransactionResponse(transactionId, accountId, operationTypeId,
+                            entry.getAmountCents(), eventDate));
+                });
+    }
+}
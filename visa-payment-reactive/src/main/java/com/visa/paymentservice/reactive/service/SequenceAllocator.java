@@ -0,0 +1,42 @@
+package com.visa.paymentservice.reactive.service;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+// Hands out ids from a database sequence that increments by BLOCK_SIZE, one round trip per block like the
+// Hibernate pooled generators of the servlet service
+public class SequenceAllocator {
+    
+    private static final int BLOCK_SIZE = 50;
+    
+    private final DatabaseClient databaseClient;
+    private final String sequenceName;
+    private long next;
+    private long end;
+    
+    public SequenceAllocator(DatabaseClient databaseClient, String sequenceName) {
+        this.databaseClient = databaseClient;
+        this.sequenceName = sequenceName;
+    }
+    
+    public Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            synchronized (this) {
+                if (next < end) {
+                    return Mono.just(next++);
+                }
+            }
+            // Two callers may fetch a block at the same time; each block is unique, so the later one just wins
+            return databaseClient.sql("select next value for " + sequenceName)
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(this::startBlock);
+        });
+    }
+    
+    private synchronized long startBlock(long first) {
+        next = first + 1;
+        end = first + BLOCK_SIZE;
+        return first;
+    }
+}
@@ -0,0 +1,4 @@
+insert into operation_types (description, category, installments_allowed) values ('Normal Purchase', 'DEBIT', false);
+insert into operation_types (description, category, installments_allowed) values ('Purchase with installments', 'DEBIT', true);
+insert into operation_types (description, category, installments_allowed) values ('Withdrawal', 'DEBIT', false);
+insert into operation_types (description, category, installments_allowed) values ('Credit Voucher', 'CREDIT', false);
@@ -0,0 +1,105 @@
+package com.visa.paymentservice.reactive.controller;
+
+import com.visa.paymentservice.dto.AccountRequest;
+import com.visa.paymentservice.dto.AccountResponse;
+import com.visa.paymentservice.dto.BalanceResponse;
+import com.visa.paymentservice.dto.TransactionDeclineResponse;
+import com.visa.paymentservice.dto.TransactionRequest;
+import com.visa.paymentservice.dto.TransactionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "payment.installments.processor-enabled=false")
+@AutoConfigureWebTestClient
+class ReactiveTransactionControllerTest {
+
+    private static final AtomicLong documentNumbers = new AtomicLong(98765432100L);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() {
+        // The database is shared by all tests of the context, so every test gets an account of its own
+        AccountResponse account = webTestClient.post().uri("/accounts")
+                .bodyValue(new AccountRequest(String.valueOf(documentNumbers.incrementAndGet())))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(AccountResponse.class)
+                .returnResult().getResponseBody();
+        accountId = account.getAccountId();
+    }
+
+    @Test
+    void createTransaction_NormalPurchase_UpdatesBalance() {
+        TransactionResponse transaction = webTestClient.post().uri("/transactions")
+                .bodyValue(new TransactionRequest(accountId, 1L, new BigDecimal("50.00")))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(TransactionResponse.class)
+                .returnResult().getResponseBody();
+        assertEquals(0, new BigDecimal("-50.00").compareTo(transaction.getAmount()));
+
+        BalanceResponse balance = webTestClient.get().uri("/accounts/{id}/balance", accountId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BalanceResponse.class)
+                .returnResult().getResponseBody();
+        assertEquals(0, new BigDecimal("-50.00").compareTo(balance.getBalance()));
+    }
+
+    @Test
+    void createTransaction_TwoPurchases_AddsBothToTheDailyRollup() {
+        for (String amount : new String[]{"10.00", "15.00"}) {
+            webTestClient.post().uri("/transactions")
+                    .bodyValue(new TransactionRequest(accountId, 1L, new BigDecimal(amount)))
+                    .exchange()
+                    .expectStatus().isCreated();
+        }
+
+        // The rows the servlet service's account summary reads
+        Map<String, Object> rollup = databaseClient.sql("select transaction_count, amount_cents from daily_rollups " +
+                        "where account_id = :accountId and operation_type_id = 1")
+                .bind("accountId", accountId)
+                .fetch()
+                .one()
+                .block();
+        assertEquals(2L, ((Number) rollup.get("transaction_count")).longValue());
+        assertEquals(-2500L, ((Number) rollup.get("amount_cents")).longValue());
+    }
+
+    @Test
+    void createTransaction_AboveCreditLimit_ReturnsDeclined() {
+        TransactionDeclineResponse decline = webTestClient.post().uri("/transactions")
+                .bodyValue(new TransactionRequest(accountId, 1L, new BigDecimal("10000.01")))
+                .exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody(TransactionDeclineResponse.class)
+                .returnResult().getResponseBody();
+        assertEquals(0, new BigDecimal("10000.00").compareTo(decline.getAvailableLimit()));
+    }
+
+    @Test
+    void createTransaction_UnknownAccount_ReturnsBadRequest() {
+        webTestClient.post().uri("/transactions")
+                .bodyValue(new TransactionRequest(999999L, 1L, new BigDecimal("50.00")))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}